@@ -0,0 +1,95 @@
+package com.example.Backend.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Executors for work that must stay off the request threads
+@Configuration
+@EnableAsync
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Value("${feed.executor.threads:4}")
+    private int feedThreads;
+
+    @Value("${feed.executor.queue-capacity:10000}")
+    private int feedQueueCapacity;
+
+    @Value("${stream.executor.threads:8}")
+    private int streamThreads;
+
+    @Value("${stream.executor.queue-capacity:50}")
+    private int streamQueueCapacity;
+
+    @Value("${import.parallelism:4}")
+    private int importThreads;
+
+    @Value("${startup.executor.threads:4}")
+    private int startupThreads;
+
+    @Value("${spring.mvc.async.request-timeout:600000}")
+    private long streamTimeoutMs;
+
+    // Timeline fan-out, backfill and cleanup
+    @Bean
+    public ThreadPoolTaskExecutor feedExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(feedThreads);
+        executor.setMaxPoolSize(feedThreads);
+        executor.setQueueCapacity(feedQueueCapacity);
+        executor.setThreadNamePrefix("feed-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Writes StreamingResponseBody exports, sized separately so long downloads can't starve the feed pool
+    @Bean
+    public ThreadPoolTaskExecutor streamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamThreads);
+        executor.setMaxPoolSize(streamThreads);
+        executor.setQueueCapacity(streamQueueCapacity);
+        executor.setThreadNamePrefix("stream-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Bulk import insert batches, each import also caps its own in-flight batches at import.parallelism
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importThreads);
+        executor.setMaxPoolSize(importThreads);
+        executor.setThreadNamePrefix("import-");
+        executor.initialize();
+        return executor;
+    }
+
+    // One-off jobs started once the application is ready: index creation, data migrations and the
+    // rebuilds of in-memory indexes and projections. A plain executor rather than a ThreadPoolTaskExecutor
+    // so context close doesn't wait for a job stuck on Mongo server selection: shutdownNow interrupts it,
+    // and the threads are daemons so one that ignores the interrupt can't keep the JVM alive.
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService startupExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(startupThreads, task -> {
+            Thread thread = new Thread(task, "startup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamExecutor());
+        configurer.setDefaultTimeout(streamTimeoutMs);
+    }
+}
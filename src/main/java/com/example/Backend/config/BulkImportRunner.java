@@ -0,0 +1,55 @@
+package com.example.Backend.config;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.dto.ImportRejectionDTO;
+import com.example.Backend.dto.ImportReportDTO;
+import com.example.Backend.enums.ImportType;
+import com.example.Backend.service.BulkImportService;
+
+// Command line import, the application exits when it is done:
+//   java -jar Backend.jar --spring.main.web-application-type=none --import.type=posts --import.file=posts.jsonl
+@Component
+@ConditionalOnProperty("import.file")
+public class BulkImportRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportRunner.class);
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${import.file}")
+    private String file;
+
+    @Value("${import.type:}")
+    private String type;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ImportType importType = ImportType.parse(type);
+        ImportReportDTO report;
+        try (InputStream in = Files.newInputStream(Path.of(file))) {
+            report = bulkImportService.importJsonLines(importType, in);
+        }
+        for (ImportRejectionDTO rejection : report.getRejections()) {
+            logger.warn("Rejected line {}: {}", rejection.getLine(), rejection.getReason());
+        }
+        int exitCode = "COMPLETED".equals(report.getStatus()) ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
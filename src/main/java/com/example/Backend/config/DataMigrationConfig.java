@@ -0,0 +1,224 @@
+package com.example.Backend.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.CommentBucket;
+import com.example.Backend.model.LearningPlan;
+import com.example.Backend.model.Notification;
+import com.example.Backend.model.PlanCompletion;
+import com.example.Backend.model.PlanTopic;
+import com.example.Backend.model.Post;
+import com.example.Backend.service.PostService;
+
+// One-off backfills for fields added after documents were already written.
+// Every step is idempotent and runs in the background after startup.
+@Configuration
+public class DataMigrationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataMigrationConfig.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier("startupExecutor")
+    private ExecutorService startupExecutor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        startupExecutor.execute(this::runMigrations);
+    }
+
+    private void runMigrations() {
+        try {
+            backfillPostLikeCount();
+            moveEmbeddedPostComments();
+            structureLearningPlanTopics();
+            moveTopicCompletions();
+            backfillNotificationActorCount();
+        } catch (Exception e) {
+            logger.warn("Data migration failed: {}", e.getMessage());
+        }
+    }
+
+    // Notifications written before coalescing each stand for one actor
+    private void backfillNotificationActorCount() {
+        long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("actorCount").exists(false)),
+                new Update().set("actorCount", 1),
+                Notification.class).getModifiedCount();
+        if (updated > 0) {
+            logger.info("Backfilled actorCount on {} notifications", updated);
+        }
+    }
+
+    // likeCount = size of the embedded likes array, done server side in one update
+    private void backfillPostLikeCount() {
+        long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("likeCount").exists(false)),
+                AggregationUpdate.update().set("likeCount").toValue(
+                        ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("likes").then(Collections.emptyList()))),
+                Post.class).getModifiedCount();
+        if (updated > 0) {
+            logger.info("Backfilled likeCount on {} posts", updated);
+        }
+    }
+
+    // Posts written before comment buckets embed every comment; move them into post_comments
+    // and leave only the preview and commentCount on the post. Buckets get fixed ids and are
+    // upserted, and the post is only changed while it still holds the array that was read, so a
+    // rerun after a crash neither duplicates comments nor undoes comments added in the meantime.
+    void moveEmbeddedPostComments() {
+        Query legacy = Query.query(Criteria.where("comments").exists(true));
+        legacy.fields().include("comments");
+        int migrated = 0;
+        try (Stream<Document> posts = mongoTemplate.stream(legacy, Document.class,
+                mongoTemplate.getCollectionName(Post.class))) {
+            Iterator<Document> cursor = posts.iterator();
+            while (cursor.hasNext()) {
+                Document raw = cursor.next();
+                Object postId = raw.get("_id");
+                Object rawComments = raw.get("comments");
+                List<Comment> comments = new ArrayList<>();
+                if (rawComments instanceof List<?> list) {
+                    for (Object rawComment : list) {
+                        if (rawComment instanceof Document commentDocument) {
+                            comments.add(mongoTemplate.getConverter().read(Comment.class, commentDocument));
+                        }
+                    }
+                }
+
+                for (int start = 0; start < comments.size(); start += CommentBucket.CAPACITY) {
+                    List<Comment> chunk = new ArrayList<>(
+                            comments.subList(start, Math.min(start + CommentBucket.CAPACITY, comments.size())));
+                    Date createdAt = chunk.get(0).getCreatedAt() != null ? chunk.get(0).getCreatedAt() : new Date();
+                    Date updatedAt = chunk.get(chunk.size() - 1).getUpdatedAt() != null
+                            ? chunk.get(chunk.size() - 1).getUpdatedAt() : createdAt;
+                    String bucketId = String.format("%s:%04d", postId, start / CommentBucket.CAPACITY);
+                    mongoTemplate.save(new CommentBucket(bucketId, postId.toString(), chunk.size(), chunk,
+                            createdAt, updatedAt));
+                }
+
+                // Comments added since the switch to buckets are newer and already counted and previewed,
+                // so the old ones are added to the count and go behind them in the preview
+                List<Comment> preview = new ArrayList<>(comments.subList(
+                        Math.max(0, comments.size() - PostService.COMMENT_PREVIEW_SIZE), comments.size()));
+                Collections.reverse(preview);
+                Update update = new Update().inc("commentCount", comments.size()).unset("comments");
+                update.push("recentComments").slice(PostService.COMMENT_PREVIEW_SIZE).each(preview.toArray());
+                migrated += mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(postId).and("comments").is(rawComments)),
+                        update, Post.class).getModifiedCount();
+            }
+        }
+        if (migrated > 0) {
+            logger.info("Moved embedded comments of {} posts into comment buckets", migrated);
+        }
+    }
+
+    // Plans written before structured topics keep free-form text in topics; one topic per line
+    // (or per comma for single-line text) goes into topicList.
+    // Only a string topics field marks a legacy plan: forks that inherit their topics have no
+    // topicList either and must keep it absent
+    void structureLearningPlanTopics() {
+        Query legacy = Query.query(legacyTopics());
+        legacy.fields().include("topics");
+        int migrated = 0;
+        try (Stream<Document> plans = mongoTemplate.stream(legacy, Document.class,
+                mongoTemplate.getCollectionName(LearningPlan.class))) {
+            Iterator<Document> cursor = plans.iterator();
+            while (cursor.hasNext()) {
+                Document raw = cursor.next();
+                String text = raw.get("topics") instanceof String s ? s : "";
+                String[] parts = text.contains("\n") ? text.split("\\r?\\n") : text.split(",");
+                List<PlanTopic> topics = new ArrayList<>();
+                for (String part : parts) {
+                    if (!part.isBlank()) {
+                        topics.add(new PlanTopic(UUID.randomUUID().toString(), part.trim(), null));
+                    }
+                }
+                mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(raw.get("_id")).andOperator(legacyTopics())),
+                        new Update().set(LearningPlan.TOPICS_FIELD, topics).set("topicCount", topics.size())
+                                .unset("topics"),
+                        mongoTemplate.getCollectionName(LearningPlan.class));
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            logger.info("Split free-form topics of {} learning plans into topic lists", migrated);
+        }
+    }
+
+    // Plans written before completions had their own collection keep them in the plan: completedBy on
+    // every topic plus a completedCounts map. Each user's ticks are added to their PlanCompletion with
+    // $addToSet, so a rerun after a crash adds nothing twice, and the plan loses the old fields last.
+    void moveTopicCompletions() {
+        Query legacy = Query.query(Criteria.where("completedCounts").exists(true));
+        legacy.fields().include(LearningPlan.TOPICS_FIELD);
+        int migrated = 0;
+        try (Stream<Document> plans = mongoTemplate.stream(legacy, Document.class,
+                mongoTemplate.getCollectionName(LearningPlan.class))) {
+            Iterator<Document> cursor = plans.iterator();
+            while (cursor.hasNext()) {
+                Document raw = cursor.next();
+                String planId = raw.get("_id").toString();
+                Map<String, List<String>> topicIdsByUser = new LinkedHashMap<>();
+                for (Document topic : raw.getList(LearningPlan.TOPICS_FIELD, Document.class, List.of())) {
+                    for (String userId : topic.getList("completedBy", String.class, List.of())) {
+                        topicIdsByUser.computeIfAbsent(userId, key -> new ArrayList<>()).add(topic.getString("_id"));
+                    }
+                }
+                topicIdsByUser.forEach((userId, topicIds) -> mongoTemplate.upsert(
+                        Query.query(Criteria.where("_id").is(PlanCompletion.idOf(planId, userId))),
+                        new Update().addToSet("topicIds").each(topicIds.toArray())
+                                .setOnInsert("planId", planId).setOnInsert("userId", userId)
+                                .set("updatedAt", new Date()),
+                        PlanCompletion.class));
+                // $[] fails on a missing array, forks that inherit their topics only have the map
+                Update cleanup = new Update().unset("completedCounts");
+                if (raw.get(LearningPlan.TOPICS_FIELD) instanceof List) {
+                    cleanup.unset(LearningPlan.TOPICS_FIELD + ".$[].completedBy");
+                }
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(raw.get("_id"))), cleanup,
+                        mongoTemplate.getCollectionName(LearningPlan.class));
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            logger.info("Moved topic completions of {} learning plans into their own collection", migrated);
+        }
+    }
+
+    private static Criteria legacyTopics() {
+        return Criteria.where("topics").type(JsonSchemaObject.Type.STRING);
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -52,6 +53,7 @@ public class SecurityConfig {
                         t.requestMatchers("/api/users/login", "/api/users/register").permitAll()
                                 .requestMatchers("/oauth2/**").permitAll()
                                 .requestMatchers("/api/auth/**").permitAll()
+                                .requestMatchers(HttpMethod.GET, "/api/media/**").permitAll()
                                 .anyRequest().authenticated()
                 )
                 .oauth2Login(t ->
@@ -106,8 +108,11 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
         configuration.setAllowedMethods(List.of("HEAD", "GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowCredentials(true);
-        configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
-        configuration.setExposedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
+        // Conditional and range requests need their headers allowed and the validators exposed
+        configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type",
+                "If-None-Match", "Range"));
+        configuration.setExposedHeaders(List.of("Authorization", "Cache-Control", "Content-Type",
+                "ETag", "Accept-Ranges", "Content-Range", "Content-Length"));
         configuration.setMaxAge(3600L);
         final UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
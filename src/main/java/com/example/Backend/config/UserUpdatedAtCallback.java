@@ -0,0 +1,20 @@
+package com.example.Backend.config;
+
+import java.util.Date;
+
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.User;
+
+// Users are saved from many places (auth, profile, follow), so updatedAt is stamped here
+// instead of at every call site
+@Component
+public class UserUpdatedAtCallback implements BeforeConvertCallback<User> {
+
+    @Override
+    public User onBeforeConvert(User user, String collection) {
+        user.setUpdatedAt(new Date());
+        return user;
+    }
+}
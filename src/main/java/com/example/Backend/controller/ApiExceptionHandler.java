@@ -0,0 +1,16 @@
+package com.example.Backend.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Fallback for exceptions a handler does not catch itself. Invalid input (a malformed page cursor,
+// an out of range parameter) is an IllegalArgumentException everywhere, and means 400, not 500.
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.Backend.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Backend.enums.EngagementTarget;
+import com.example.Backend.model.EngagementEvent;
+import com.example.Backend.service.EngagementService;
+
+// Engagement analytics, read from the projections of the engagement log
+@RestController
+@RequestMapping("/api/engagement")
+@CrossOrigin(origins = "*")
+public class EngagementController {
+    @Autowired
+    private EngagementService engagementService;
+
+    // Like, comment and edit totals of one learning plan or progress entry, target is learning-plan or learning-progress
+    @GetMapping("/{target}/{id}")
+    public ResponseEntity<?> getCounters(@PathVariable String target, @PathVariable String id) {
+        try {
+            return ResponseEntity.ok(engagementService.getCounters(EngagementTarget.parse(target), id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Latest likes and comments other users left on a user's plans and progress entries
+    @GetMapping("/user/{userId}/recent")
+    public ResponseEntity<List<EngagementEvent>> getRecentEngagement(@PathVariable String userId) {
+        return ResponseEntity.ok(engagementService.getRecentEngagement(userId));
+    }
+}
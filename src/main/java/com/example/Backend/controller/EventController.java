@@ -3,7 +3,9 @@ package com.example.Backend.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,9 +17,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.Backend.dto.CursorPage;
 import com.example.Backend.dto.EventDTO;
 import com.example.Backend.dto.EventResponseDTO;
+import com.example.Backend.model.Event;
+import com.example.Backend.service.ETagService;
 import com.example.Backend.service.EventService;
 
 @RestController
@@ -28,6 +35,9 @@ public class EventController {
     @Autowired
     private EventService eventService;
 
+    @Autowired
+    private ETagService eTagService;
+
     
     @PostMapping("/user/{userId}")
     public ResponseEntity<EventResponseDTO> createEvent(
@@ -39,20 +49,44 @@ public class EventController {
 
     // Get all events
     @GetMapping
-    public ResponseEntity<List<EventResponseDTO>> getAll() {
-        return ResponseEntity.ok(eventService.getAllEvents());
+    public ResponseEntity<CursorPage<EventResponseDTO>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.pageTag(Event.class,
+                Criteria.where("deletedAt").is(null), cursor, limit, null))) {
+            return null;
+        }
+        return ResponseEntity.ok(eventService.getAllEvents(cursor, limit));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(eventService.streamAllEvents());
     }
 
     // Get event by ID
     @GetMapping("/{id}")
-    public ResponseEntity<EventResponseDTO> getById(@PathVariable String id) {
+    public ResponseEntity<EventResponseDTO> getById(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.documentTag(Event.class, id,
+                Criteria.where("deletedAt").is(null)))) {
+            return null;
+        }
         return ResponseEntity.ok(eventService.getEventById(id));
     }
 
     // Get events by user
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<EventResponseDTO>> getByUser(@PathVariable String userId) {
-        return ResponseEntity.ok(eventService.getEventsByUser(userId));
+    public ResponseEntity<CursorPage<EventResponseDTO>> getByUser(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.pageTag(Event.class,
+                Criteria.where("userId").is(userId).and("deletedAt").is(null), cursor, limit, null))) {
+            return null;
+        }
+        return ResponseEntity.ok(eventService.getEventsByUser(userId, cursor, limit));
     }
 
     // Search/filter events
@@ -0,0 +1,32 @@
+package com.example.Backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PostSummaryDTO;
+import com.example.Backend.service.PostService;
+
+@RestController
+@RequestMapping("/api/feed")
+@CrossOrigin(origins = "*")
+public class FeedController {
+    @Autowired
+    private PostService postService;
+
+    // Home feed: posts of the users this user follows, newest first
+    @GetMapping
+    public ResponseEntity<CursorPage<PostSummaryDTO>> getFeed(
+            @RequestParam String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<PostSummaryDTO> feed = postService.getHomeFeed(userId, cursor, limit);
+        return new ResponseEntity<>(feed, HttpStatus.OK);
+    }
+}
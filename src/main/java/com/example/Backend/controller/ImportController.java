@@ -0,0 +1,63 @@
+package com.example.Backend.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.Backend.dto.ImportReportDTO;
+import com.example.Backend.enums.ImportType;
+import com.example.Backend.service.BulkImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Bulk import of JSON lines files, type is posts, resources or events
+@RestController
+@RequestMapping("/api/import")
+@CrossOrigin(origins = "*")
+public class ImportController {
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    // Upload as a multipart "file" part
+    @PostMapping(value = "/{type}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importFile(@PathVariable String type, @RequestParam("file") MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(bulkImportService.importJsonLines(ImportType.parse(type), in));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Could not read upload");
+        }
+    }
+
+    // Upload as a raw application/x-ndjson body, read straight from the socket
+    @PostMapping(value = "/{type}", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> importBody(@PathVariable String type, HttpServletRequest request) {
+        try {
+            ImportType importType = ImportType.parse(type);
+            return ResponseEntity.ok(bulkImportService.importJsonLines(importType, request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Could not read upload");
+        }
+    }
+
+    // Progress of imports that are still running
+    @GetMapping
+    public ResponseEntity<List<ImportReportDTO>> getRunningImports() {
+        return ResponseEntity.ok(bulkImportService.getRunningImports());
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.Backend.controller;
 
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PatchResultDTO;
 import com.example.Backend.model.Comment;
 import com.example.Backend.model.Like;
 import com.example.Backend.model.LearningPlan;
+import com.example.Backend.service.ETagService;
 import com.example.Backend.service.LearningPlanService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/learning-plan")
@@ -20,6 +28,9 @@ public class LearningPlanController {
     @Autowired
     private LearningPlanService learningPlanService;
 
+    @Autowired
+    private ETagService eTagService;
+
     // Create a learning plan for a specific user
     @PostMapping("/user/{userId}")
     public ResponseEntity<LearningPlan> createLearningPlanForUser(
@@ -32,22 +43,47 @@ public class LearningPlanController {
 
     // Get all learning plans
     @GetMapping
-    public ResponseEntity<List<LearningPlan>> getAllLearningPlans() {
-        List<LearningPlan> plans = learningPlanService.getAllLearningPlans();
+    public ResponseEntity<CursorPage<LearningPlan>> getAllLearningPlans(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.pageTag(LearningPlan.class,
+                Criteria.where("deletedAt").is(null), cursor, limit, null))) {
+            return null;
+        }
+        CursorPage<LearningPlan> plans = learningPlanService.getAllLearningPlans(cursor, limit);
         return new ResponseEntity<>(plans, HttpStatus.OK);
     }
 
+    // Export all learning plans as NDJSON
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllLearningPlans() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(learningPlanService.streamAllLearningPlans());
+    }
+
     // Get a learning plan by ID
     @GetMapping("/{id}")
-    public ResponseEntity<LearningPlan> getLearningPlanById(@PathVariable String id) {
+    public ResponseEntity<LearningPlan> getLearningPlanById(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.documentTag(LearningPlan.class, id,
+                Criteria.where("deletedAt").is(null)))) {
+            return null;
+        }
         LearningPlan plan = learningPlanService.getLearningPlanById(id);
         return new ResponseEntity<>(plan, HttpStatus.OK);
     }
 
     // Get learning plans by user ID
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<LearningPlan>> getLearningPlansByUserId(@PathVariable String userId) {
-        List<LearningPlan> plans = learningPlanService.getLearningPlansByUserId(userId);
+    public ResponseEntity<CursorPage<LearningPlan>> getLearningPlansByUserId(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.pageTag(LearningPlan.class,
+                Criteria.where("userId").is(userId).and("deletedAt").is(null), cursor, limit, null))) {
+            return null;
+        }
+        CursorPage<LearningPlan> plans = learningPlanService.getLearningPlansByUserId(userId, cursor, limit);
         return new ResponseEntity<>(plans, HttpStatus.OK);
     }
 
@@ -60,6 +96,101 @@ public class LearningPlanController {
         return new ResponseEntity<>(updated, HttpStatus.OK);
     }
 
+    // Fork a plan for a user, the body holds only the fields the fork changes
+    @PostMapping("/{id}/fork/user/{userId}")
+    public ResponseEntity<?> forkLearningPlan(
+            @PathVariable String id,
+            @PathVariable String userId,
+            @RequestBody(required = false) LearningPlan overrides) {
+        try {
+            LearningPlan fork = overrides == null ? new LearningPlan() : overrides;
+            fork.setUserId(userId);
+            return new ResponseEntity<>(learningPlanService.forkLearningPlan(id, fork), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    // Direct forks of a plan
+    @GetMapping("/{id}/forks")
+    public ResponseEntity<?> getForks(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(learningPlanService.getForks(id, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Ancestors, fork count and number of forks at any depth
+    @GetMapping("/{id}/lineage")
+    public ResponseEntity<?> getLineage(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(learningPlanService.getLineage(id));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    // Plans with overlapping topics and resources
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<?> getSimilarPlans(@PathVariable String id, @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(learningPlanService.getSimilarPlans(id, limit));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    // Tick one topic on or off for a user
+    @PutMapping("/{id}/topics/{topicId}/completion")
+    public ResponseEntity<?> setTopicCompleted(
+            @PathVariable String id,
+            @PathVariable String topicId,
+            @RequestParam String userId,
+            @RequestParam boolean completed) {
+        try {
+            return ResponseEntity.ok(learningPlanService.setTopicCompleted(id, topicId, userId, completed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    // Percent of the plan's topics a user has completed
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<?> getProgress(@PathVariable String id, @RequestParam String userId) {
+        try {
+            return ResponseEntity.ok(learningPlanService.getProgress(id, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    // Update only the fields present in the body
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchLearningPlan(@PathVariable String id, @RequestBody Map<String, Object> fields) {
+        try {
+            PatchResultDTO result = learningPlanService.patchLearningPlan(id, fields);
+            return ResponseEntity.ok()
+                    .eTag(eTagService.documentTag(id, result.getUpdatedAt().getTime()))
+                    .body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
     // Delete a learning plan
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteLearningPlan(@PathVariable String id) {
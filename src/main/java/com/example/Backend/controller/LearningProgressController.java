@@ -1,16 +1,27 @@
 package com.example.Backend.controller;
 
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PatchResultDTO;
+import com.example.Backend.dto.SkillCountDTO;
 import com.example.Backend.model.Comment;
 import com.example.Backend.model.Like;
 import com.example.Backend.model.LearningProgress;
+import com.example.Backend.service.ETagService;
 import com.example.Backend.service.LearningProgressService;
+import com.example.Backend.service.SkillIndexService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/learning-progress")
@@ -19,6 +30,12 @@ public class LearningProgressController {
     @Autowired
     private LearningProgressService learningProgressService;
 
+    @Autowired
+    private ETagService eTagService;
+
+    @Autowired
+    private SkillIndexService skillIndexService;
+
     //create a learning progress record for a specific user
     @PostMapping("/user/{userId}")
     public ResponseEntity<LearningProgress> createLearningProgressForUser(
@@ -31,25 +48,59 @@ public class LearningProgressController {
 
     //get all learning progress entries
     @GetMapping
-    public ResponseEntity<List<LearningProgress>> getAllLearningProgress() {
-        List<LearningProgress> entries = learningProgressService.getAllLearningProgress();
+    public ResponseEntity<CursorPage<LearningProgress>> getAllLearningProgress(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.pageTag(LearningProgress.class,
+                Criteria.where("deletedAt").is(null), cursor, limit, null))) {
+            return null;
+        }
+        CursorPage<LearningProgress> entries = learningProgressService.getAllLearningProgress(cursor, limit);
         return new ResponseEntity<>(entries, HttpStatus.OK);
     }
 
+    //export all learning progress entries as NDJSON
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllLearningProgress() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(learningProgressService.streamAllLearningProgress());
+    }
+
     //get a learning progress entry by ID
     @GetMapping("/{id}")
-    public ResponseEntity<LearningProgress> getLearningProgressById(@PathVariable String id) {
+    public ResponseEntity<LearningProgress> getLearningProgressById(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.documentTag(LearningProgress.class, id,
+                Criteria.where("deletedAt").is(null)))) {
+            return null;
+        }
         LearningProgress entry = learningProgressService.getLearningProgressById(id);
         return new ResponseEntity<>(entry, HttpStatus.OK);
     }
 
     //get learning progress entries by user ID
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<LearningProgress>> getLearningProgressByUserId(@PathVariable String userId) {
-        List<LearningProgress> entries = learningProgressService.getLearningProgressByUserId(userId);
+    public ResponseEntity<CursorPage<LearningProgress>> getLearningProgressByUserId(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.pageTag(LearningProgress.class,
+                Criteria.where("userId").is(userId).and("deletedAt").is(null), cursor, limit, null))) {
+            return null;
+        }
+        CursorPage<LearningProgress> entries =
+                learningProgressService.getLearningProgressByUserId(userId, cursor, limit);
         return new ResponseEntity<>(entries, HttpStatus.OK);
     }
 
+    //skills the user practiced most, served from the skill index
+    @GetMapping("/user/{userId}/skills")
+    public ResponseEntity<List<SkillCountDTO>> getTopSkills(
+            @PathVariable String userId,
+            @RequestParam(required = false) Integer limit) {
+        return new ResponseEntity<>(skillIndexService.getTopSkills(userId, limit), HttpStatus.OK);
+    }
+
     //uUapdate a learning progress entry
     @PutMapping("/{id}")
     public ResponseEntity<LearningProgress> updateLearningProgress(
@@ -59,6 +110,21 @@ public class LearningProgressController {
         return new ResponseEntity<>(updated, HttpStatus.OK);
     }
 
+    //update only the fields present in the body
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchLearningProgress(@PathVariable String id, @RequestBody Map<String, Object> fields) {
+        try {
+            PatchResultDTO result = learningProgressService.patchLearningProgress(id, fields);
+            return ResponseEntity.ok()
+                    .eTag(eTagService.documentTag(id, result.getUpdatedAt().getTime()))
+                    .body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
     //delete a learning progress entry
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteLearningProgress(@PathVariable String id) {
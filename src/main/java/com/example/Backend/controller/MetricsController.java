@@ -0,0 +1,42 @@
+package com.example.Backend.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Backend.service.ImageDerivativeService;
+import com.example.Backend.service.NotificationService;
+import com.example.Backend.service.PostCache;
+
+// Runtime statistics used to size caches and queues
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @GetMapping("/post-cache")
+    public ResponseEntity<Map<String, Object>> getPostCacheStats() {
+        return ResponseEntity.ok(postCache.getStats());
+    }
+
+    @GetMapping("/image-pipeline")
+    public ResponseEntity<Map<String, Object>> getImagePipelineStats() {
+        return ResponseEntity.ok(imageDerivativeService.getStats());
+    }
+
+    @GetMapping("/notifications")
+    public ResponseEntity<Map<String, Object>> getNotificationQueueStats() {
+        return ResponseEntity.ok(notificationService.getStats());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.Backend.controller;
 
+import com.example.Backend.dto.CursorPage;
 import com.example.Backend.model.Notification;
 import com.example.Backend.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,13 +19,18 @@ public class NotificationController {
     private NotificationService notificationService;
 
     @GetMapping
-    public ResponseEntity<?> getNotifications(@RequestParam String userId) {
+    public ResponseEntity<?> getNotifications(
+            @RequestParam String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         if (userId == null || userId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("userId is required");
         }
         try {
-            List<Notification> notifications = notificationService.getUserNotifications(userId);
+            CursorPage<Notification> notifications = notificationService.getUserNotifications(userId, cursor, limit);
             return ResponseEntity.ok(notifications);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error fetching notifications: " + e.getMessage());
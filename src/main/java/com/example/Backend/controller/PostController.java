@@ -3,7 +3,9 @@ package com.example.Backend.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,7 +17,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.LikeStatusDTO;
+import com.example.Backend.dto.PostSummaryDTO;
 import com.example.Backend.model.Comment;
 import com.example.Backend.model.Like;
 import com.example.Backend.model.Post;
@@ -39,22 +46,71 @@ public class PostController {
 
     // get all posts
     @GetMapping
-    public ResponseEntity<List<Post>> getAllPosts() {
-        List<Post> posts = postService.getAllPosts();
+    public ResponseEntity<CursorPage<PostSummaryDTO>> getAllPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String viewerId,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(postService.getPageETag(null, cursor, limit, viewerId))) {
+            return null;
+        }
+        CursorPage<PostSummaryDTO> posts = postService.getAllPosts(cursor, limit, viewerId);
+        return new ResponseEntity<>(posts, HttpStatus.OK);
+    }
+
+    // export every post as NDJSON, chosen with Accept: application/x-ndjson
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPosts(@RequestParam(required = false) String viewerId) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(postService.streamAllPosts(viewerId));
+    }
+
+    // Search posts by text in the description or author name
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String viewerId) {
+        try {
+            CursorPage<PostSummaryDTO> posts = postService.searchPosts(q, cursor, limit, viewerId);
+            return new ResponseEntity<>(posts, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Posts with the most recent engagement, highest score first
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostSummaryDTO>> getTrendingPosts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String viewerId) {
+        List<PostSummaryDTO> posts = postService.getTrendingPosts(limit, viewerId);
         return new ResponseEntity<>(posts, HttpStatus.OK);
     }
 
     // Get a post by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Post> getPostById(@PathVariable String id) {
+    public ResponseEntity<Post> getPostById(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(postService.getPostETag(id))) {
+            return null;
+        }
         Post post = postService.getPostById(id);
         return new ResponseEntity<>(post, HttpStatus.OK);
     }
 
     // Get posts by user ID
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Post>> getPostsByUserId(@PathVariable String userId) {
-        List<Post> posts = postService.getPostsByUserId(userId);
+    public ResponseEntity<CursorPage<PostSummaryDTO>> getPostsByUserId(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String viewerId,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(postService.getPageETag(
+                Criteria.where("userId").is(userId), cursor, limit, viewerId))) {
+            return null;
+        }
+        CursorPage<PostSummaryDTO> posts = postService.getPostsByUserId(userId, cursor, limit, viewerId);
         return new ResponseEntity<>(posts, HttpStatus.OK);
     }
 
@@ -75,42 +131,51 @@ public class PostController {
 
     // Add a comment to a post
     @PostMapping("/{postId}/comments")
-    public ResponseEntity<Post> addComment(@PathVariable String postId, @RequestBody Comment comment) {
-        Post updatedPost = postService.addComment(postId, comment);
-        return new ResponseEntity<>(updatedPost, HttpStatus.CREATED);
+    public ResponseEntity<Comment> addComment(@PathVariable String postId, @RequestBody Comment comment) {
+        Comment created = postService.addComment(postId, comment);
+        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    }
+
+    // Get a page of comments, newest first
+    @GetMapping("/{postId}/comments")
+    public ResponseEntity<CursorPage<Comment>> getComments(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<Comment> comments = postService.getComments(postId, cursor);
+        return new ResponseEntity<>(comments, HttpStatus.OK);
     }
 
     // Update a comment
     @PutMapping("/{postId}/comments/{commentId}")
-    public ResponseEntity<Post> updateComment(
+    public ResponseEntity<Comment> updateComment(
             @PathVariable String postId,
             @PathVariable String commentId,
             @RequestBody Comment comment) {
-        Post updatedPost = postService.updateComment(postId, commentId, comment);
-        return new ResponseEntity<>(updatedPost, HttpStatus.OK);
+        Comment updated = postService.updateComment(postId, commentId, comment);
+        return new ResponseEntity<>(updated, HttpStatus.OK);
     }
 
     // Delete a comment
     @DeleteMapping("/{postId}/comments/{commentId}")
-    public ResponseEntity<Post> deleteComment(
+    public ResponseEntity<Void> deleteComment(
             @PathVariable String postId,
             @PathVariable String commentId,
             @RequestParam String userId) {
-        Post updatedPost = postService.deleteComment(postId, commentId, userId);
-        return new ResponseEntity<>(updatedPost, HttpStatus.OK);
+        postService.deleteComment(postId, commentId, userId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     // Add a like to a post
     @PostMapping("/{postId}/likes")
-    public ResponseEntity<Post> addLike(@PathVariable String postId, @RequestBody Like like) {
-        Post updatedPost = postService.addLike(postId, like);
-        return new ResponseEntity<>(updatedPost, HttpStatus.CREATED);
+    public ResponseEntity<LikeStatusDTO> addLike(@PathVariable String postId, @RequestBody Like like) {
+        LikeStatusDTO status = postService.addLike(postId, like);
+        return new ResponseEntity<>(status, HttpStatus.CREATED);
     }
 
     // Remove a like from a post
     @DeleteMapping("/{postId}/likes/{userId}")
-    public ResponseEntity<Post> removeLike(@PathVariable String postId, @PathVariable String userId) {
-        Post updatedPost = postService.removeLike(postId, userId);
-        return new ResponseEntity<>(updatedPost, HttpStatus.OK);
+    public ResponseEntity<LikeStatusDTO> removeLike(@PathVariable String postId, @PathVariable String userId) {
+        LikeStatusDTO status = postService.removeLike(postId, userId);
+        return new ResponseEntity<>(status, HttpStatus.OK);
     }
 }
\ No newline at end of file
@@ -5,7 +5,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,9 +19,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.Backend.dto.CursorPage;
 import com.example.Backend.dto.ResourceDTO;
 import com.example.Backend.dto.ResourceResponseDTO;
+import com.example.Backend.model.Resource;
+import com.example.Backend.service.ETagService;
 import com.example.Backend.service.ResourceService;
 
 @RestController
@@ -32,6 +39,9 @@ public class ResourceController
     @Autowired
     private ResourceService resourceService;
 
+    @Autowired
+    private ETagService eTagService;
+
     @PostMapping("/user/{userId}")
     public ResponseEntity<ResourceResponseDTO> createResource(
             @PathVariable String userId,
@@ -55,21 +65,44 @@ public class ResourceController
     }
 
     @GetMapping
-    public ResponseEntity<List<ResourceResponseDTO>> getAll() {
+    public ResponseEntity<CursorPage<ResourceResponseDTO>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.pageTag(Resource.class,
+                Criteria.where("deletedAt").is(null), cursor, limit, null))) {
+            return null;
+        }
+        return ResponseEntity.ok(resourceService.getAllResources(cursor, limit));
+    }
 
-        return ResponseEntity.ok(resourceService.getAllResources());
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(resourceService.streamAllResources());
     }
 
 
     @GetMapping("/{id}")
-    public ResponseEntity<ResourceResponseDTO> getById(@PathVariable String id) {
+    public ResponseEntity<ResourceResponseDTO> getById(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.documentTag(Resource.class, id,
+                Criteria.where("deletedAt").is(null)))) {
+            return null;
+        }
         return ResponseEntity.ok(resourceService.getResourceById(id));
     }
 
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ResourceResponseDTO>> getByUser(@PathVariable String userId) {
-        return ResponseEntity.ok(resourceService.getResourcesByUser(userId));
+    public ResponseEntity<CursorPage<ResourceResponseDTO>> getByUser(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.pageTag(Resource.class,
+                Criteria.where("userId").is(userId).and("deletedAt").is(null), cursor, limit, null))) {
+            return null;
+        }
+        return ResponseEntity.ok(resourceService.getResourcesByUser(userId, cursor, limit));
     }
 
     @GetMapping("/search")
@@ -5,12 +5,15 @@ import com.example.Backend.dto.UserProfileDTO;
 import com.example.Backend.dto.UserUpdateDTO;
 import com.example.Backend.model.User;
 import com.example.Backend.repository.UserRepository;
+import com.example.Backend.service.ETagService;
+import com.example.Backend.service.UserActivityService;
 import com.example.Backend.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -22,22 +25,33 @@ import java.util.Optional;
 public class UserController {
     private final UserService userService;
     private final UserRepository userRepository;
+    private final ETagService eTagService;
+    private final UserActivityService userActivityService;
 
     @Autowired
-    public UserController(UserService userService, UserRepository userRepository) {
+    public UserController(UserService userService, UserRepository userRepository, ETagService eTagService,
+                          UserActivityService userActivityService) {
         this.userService = userService;
         this.userRepository = userRepository;
+        this.eTagService = eTagService;
+        this.userActivityService = userActivityService;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable String id) {
-        Optional<User> user = userRepository.findById(id);
+    public ResponseEntity<?> getUserById(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.documentTag(User.class, id))) {
+            return null;
+        }
+        Optional<User> user = userRepository.findById(id).filter(u -> u.getDeletedAt() == null);
         return user.map(value -> ResponseEntity.ok(userService.convertToProfileDTO(value)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/profile/{id}")
-    public ResponseEntity<?> getUserProfile(@PathVariable String id) {
+    public ResponseEntity<?> getUserProfile(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.documentTag(User.class, id))) {
+            return null;
+        }
         return userService.getUserProfile(id);
     }
 
@@ -93,11 +107,33 @@ public class UserController {
         return userService.unfollowUser(id, followerId);
     }
 
+    // Responds 202, the account's posts, plans and other content are deleted in the background
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteUser(@PathVariable String id) {
+        return userService.deleteUser(id);
+    }
+
     @GetMapping("/{id}/content")
     public ResponseEntity<?> getUserContent(@PathVariable String id) {
         return userService.getUserContent(id);
     }
 
+    // Daily activity counts for the profile heatmap, the current year by default
+    @GetMapping("/{id}/activity")
+    public ResponseEntity<?> getActivityHeatmap(@PathVariable String id, @RequestParam(required = false) Integer year) {
+        try {
+            return ResponseEntity.ok(userActivityService.getHeatmap(id, year));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Current and longest learning streak
+    @GetMapping("/{id}/streaks")
+    public ResponseEntity<?> getStreaks(@PathVariable String id) {
+        return ResponseEntity.ok(userActivityService.getStreaks(id));
+    }
+
     @GetMapping("/{userId}/post/count")
     public ResponseEntity<?> getUserTotalPostCount(@PathVariable String userId){
         return ResponseEntity.ok().body(userService.getUserTotalPostCount(userId));
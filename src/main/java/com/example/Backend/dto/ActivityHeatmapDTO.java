@@ -0,0 +1,18 @@
+package com.example.Backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Daily activity counts of one year, counts[0] is January 1st
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityHeatmapDTO {
+    private String userId;
+    private int year;
+    private List<Integer> counts;
+    private int total;
+}
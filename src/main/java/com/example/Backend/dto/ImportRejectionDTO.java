@@ -0,0 +1,14 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A record the importer skipped, line is 1-based in the uploaded file
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRejectionDTO {
+    private long line;
+    private String reason;
+}
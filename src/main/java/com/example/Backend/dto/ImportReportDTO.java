@@ -0,0 +1,26 @@
+package com.example.Backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Progress of a bulk import, also returned as the final result once status is COMPLETED or FAILED
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReportDTO {
+    private String id;
+    private String type;
+    private String status;
+    private long recordsRead;
+    private long inserted;
+    private long duplicates;
+    private long rejected;
+    private long elapsedMs;
+    private long recordsPerSecond;
+    // Only the first import.max-reported-rejections are kept, rejected holds the full count
+    private List<ImportRejectionDTO> rejections;
+    private String error;
+}
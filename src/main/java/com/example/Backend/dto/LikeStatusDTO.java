@@ -0,0 +1,15 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Result of a like/unlike: the new count and whether the caller now likes the post
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LikeStatusDTO {
+    private String postId;
+    private int likeCount;
+    private boolean liked;
+}
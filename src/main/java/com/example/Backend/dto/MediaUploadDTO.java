@@ -0,0 +1,16 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A stored media file, url can be put into Post.mediaUrls as is
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaUploadDTO {
+    private String url;
+    private String name;
+    private long size;
+    private String contentType;
+}
@@ -0,0 +1,91 @@
+package com.example.Backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+// Opaque keyset cursor on (createdAt, id), pages are read newest first
+public class PageCursor {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private final long createdAt;
+    private final String id;
+
+    public PageCursor(long createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static PageCursor of(Date createdAt, String id) {
+        return new PageCursor(createdAt == null ? 0L : createdAt.getTime(), id);
+    }
+
+    // Returns null for a missing cursor, meaning "start from the newest entry"
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator <= 0 || separator == decoded.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PageCursor(Long.parseLong(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    // Matches entries that come after this cursor in (createdAt desc, _id desc) order
+    public Criteria toCriteria() {
+        return toCriteria("_id", getIdValue());
+    }
+
+    // Same as toCriteria() for collections whose tie-breaker is another field, e.g. a postId
+    public Criteria toCriteria(String idField, Object idValue) {
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(getCreatedAtDate()),
+                Criteria.where("createdAt").is(getCreatedAtDate()).and(idField).lt(idValue));
+    }
+
+    // Same as toCriteria() for collections that store createdAt as epoch millis
+    public Criteria toEpochMillisCriteria() {
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(createdAt),
+                Criteria.where("createdAt").is(createdAt).and("_id").lt(getIdValue()));
+    }
+
+    public String encode() {
+        String raw = createdAt + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getCreatedAtDate() {
+        return new Date(createdAt);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // Mongo generated ids are stored as ObjectId, so compare against the same BSON type
+    public Object getIdValue() {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.Backend.dto;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Answer to a PATCH, clients keep their copy and only take the new version stamp
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatchResultDTO {
+    private String id;
+    private Date updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.example.Backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Where a learning plan came from and how far it has spread
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlanLineageDTO {
+    private String planId;
+    // Ancestor ids, the original plan first and the direct source last
+    private List<String> ancestors;
+    private int forkCount;
+    // Forks of this plan at any depth
+    private long descendantCount;
+}
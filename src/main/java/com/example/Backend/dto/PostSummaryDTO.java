@@ -0,0 +1,60 @@
+package com.example.Backend.dto;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.example.Backend.model.MediaVariant;
+import com.example.Backend.model.Post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Feed read model: the post without its likes and comment arrays
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSummaryDTO {
+    private String id;
+    private String userId;
+    private String userName;
+    private String description;
+    private List<String> mediaUrls;
+    // Same order as mediaUrls, the original url where no smaller copy exists (yet)
+    private List<String> thumbnailUrls;
+    private List<String> mediumUrls;
+    private Date createdAt;
+    private Date updatedAt;
+    private int likeCount;
+    private int commentCount;
+    private boolean likedByViewer;
+
+    // likes may hold every like or only the viewer's one (from an $elemMatch projection)
+    public static PostSummaryDTO from(Post post, String viewerId) {
+        boolean liked = viewerId != null && post.getLikes() != null
+                && post.getLikes().stream().anyMatch(like -> viewerId.equals(like.getUserId()));
+        return new PostSummaryDTO(post.getId(), post.getUserId(), post.getUserName(), post.getDescription(),
+                post.getMediaUrls(), smallestCopies(post, MediaVariant::getThumbnailUrl),
+                smallestCopies(post, MediaVariant::getMediumUrl), post.getCreatedAt(), post.getUpdatedAt(), post.getLikeCount(),
+                post.getCommentCount(), liked);
+    }
+
+    private static List<String> smallestCopies(Post post, Function<MediaVariant, String> size) {
+        if (post.getMediaUrls() == null) {
+            return null;
+        }
+        Map<String, String> copies = new HashMap<>();
+        if (post.getMediaVariants() != null) {
+            for (MediaVariant variant : post.getMediaVariants()) {
+                copies.put(variant.getOriginalUrl(), size.apply(variant));
+            }
+        }
+        return post.getMediaUrls().stream()
+                .map(url -> copies.getOrDefault(url, url))
+                .collect(Collectors.toList());
+    }
+}
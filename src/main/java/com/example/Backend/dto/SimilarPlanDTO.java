@@ -0,0 +1,19 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A recommended learning plan, similarity is the estimated share of shared title/topic/resource shingles
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarPlanDTO {
+    private String id;
+    private String userId;
+    private String userName;
+    private String title;
+    private String description;
+    private int topicCount;
+    private double similarity;
+}
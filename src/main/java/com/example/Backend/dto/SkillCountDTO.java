@@ -0,0 +1,14 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A normalized skill and the number of the user's learning progress entries that mention it
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SkillCountDTO {
+    private String skill;
+    private int count;
+}
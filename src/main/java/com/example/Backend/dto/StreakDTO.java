@@ -0,0 +1,16 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// currentStreak is 0 once a full day passed without activity, lastActiveDate is an ISO date or null
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StreakDTO {
+    private String userId;
+    private int currentStreak;
+    private int longestStreak;
+    private String lastActiveDate;
+}
@@ -0,0 +1,19 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One user's completion of a learning plan; topicId and completed are set when a single topic was toggled
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TopicProgressDTO {
+    private String planId;
+    private String userId;
+    private String topicId;
+    private Boolean completed;
+    private int completedTopics;
+    private int totalTopics;
+    private int percentComplete;
+}
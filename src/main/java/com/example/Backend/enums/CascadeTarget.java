@@ -0,0 +1,6 @@
+package com.example.Backend.enums;
+
+// What a CascadeJob deletes
+public enum CascadeTarget {
+    POST, USER
+}
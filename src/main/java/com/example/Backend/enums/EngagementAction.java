@@ -0,0 +1,6 @@
+package com.example.Backend.enums;
+
+// What happened to a learning plan or progress entry, one engagement log event each
+public enum EngagementAction {
+    LIKE, UNLIKE, COMMENT, COMMENT_EDIT, COMMENT_DELETE, EDIT, DELETE
+}
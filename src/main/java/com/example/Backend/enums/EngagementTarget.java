@@ -0,0 +1,48 @@
+package com.example.Backend.enums;
+
+import com.example.Backend.model.Engageable;
+import com.example.Backend.model.LearningPlan;
+import com.example.Backend.model.LearningProgress;
+
+// Kinds of content whose likes and comments go through the engagement log
+public enum EngagementTarget {
+    LEARNING_PLAN(LearningPlan.class, "Learning plan"),
+    LEARNING_PROGRESS(LearningProgress.class, "Learning progress");
+
+    private final Class<? extends Engageable> documentClass;
+    private final String label;
+
+    EngagementTarget(Class<? extends Engageable> documentClass, String label) {
+        this.documentClass = documentClass;
+        this.label = label;
+    }
+
+    public Class<? extends Engageable> getDocumentClass() {
+        return documentClass;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static EngagementTarget of(Class<?> documentClass) {
+        for (EngagementTarget target : values()) {
+            if (target.documentClass.equals(documentClass)) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException("Not an engagement target: " + documentClass.getSimpleName());
+    }
+
+    // Accepts the names used in URLs, e.g. learning-plan
+    public static EngagementTarget parse(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Target is required");
+        }
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown target: " + name);
+        }
+    }
+}
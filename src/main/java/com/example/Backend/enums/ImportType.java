@@ -0,0 +1,32 @@
+package com.example.Backend.enums;
+
+import com.example.Backend.model.Event;
+import com.example.Backend.model.Post;
+import com.example.Backend.model.Resource;
+
+// Collections that can be filled by the bulk importer
+public enum ImportType {
+    POSTS(Post.class), RESOURCES(Resource.class), EVENTS(Event.class);
+
+    private final Class<?> documentClass;
+
+    ImportType(Class<?> documentClass) {
+        this.documentClass = documentClass;
+    }
+
+    public Class<?> getDocumentClass() {
+        return documentClass;
+    }
+
+    // Accepts the lower case names used in URLs and on the command line
+    public static ImportType parse(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Import type is required");
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown import type: " + name);
+        }
+    }
+}
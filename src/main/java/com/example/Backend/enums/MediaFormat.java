@@ -0,0 +1,75 @@
+package com.example.Backend.enums;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+
+// Media types accepted for upload. Each one fixes the stored extension and the Content-Type it is
+// served with, and is recognised by its leading bytes so a renamed html or svg file cannot pass as one
+public enum MediaFormat {
+    JPEG("image/jpeg", "jpg", 0, new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF }),
+    PNG("image/png", "png", 0, new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }),
+    GIF("image/gif", "gif", 0, ascii("GIF8")),
+    WEBP("image/webp", "webp", 8, ascii("WEBP")),
+    MP4("video/mp4", "mp4", 4, ascii("ftyp")),
+    QUICKTIME("video/quicktime", "mov", 4, ascii("ftyp")),
+    WEBM("video/webm", "webm", 0, new byte[] { 0x1A, 0x45, (byte) 0xDF, (byte) 0xA3 });
+
+    // Enough leading bytes to check every signature above
+    public static final int HEADER_LENGTH = 12;
+
+    private final String contentType;
+    private final String extension;
+    private final int signatureOffset;
+    private final byte[] signature;
+
+    MediaFormat(String contentType, String extension, int signatureOffset, byte[] signature) {
+        this.contentType = contentType;
+        this.extension = extension;
+        this.signatureOffset = signatureOffset;
+        this.signature = signature;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return MediaType.parseMediaType(contentType);
+    }
+
+    // True when the file starts like this format says it should
+    public boolean matches(byte[] header) {
+        int end = signatureOffset + signature.length;
+        return header.length >= end
+                && Arrays.equals(header, signatureOffset, end, signature, 0, signature.length);
+    }
+
+    // The declared Content-Type of an upload, parameters and case ignored
+    public static MediaFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            for (MediaFormat format : values()) {
+                if (format.contentType.equals(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Only JPEG, PNG, GIF, WebP, MP4, QuickTime and WebM files are allowed");
+    }
+
+    public static Optional<MediaFormat> fromExtension(String extension) {
+        return Arrays.stream(values()).filter(format -> format.extension.equals(extension)).findFirst();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.Backend.model;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One user's activity in one calendar year, counts[dayOfYear - 1] is the number of posts,
+// learning plans and progress entries created that day. The id is userId:year.
+@Document(collection = "user_activity_years")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityYear {
+    public static final int DAYS = 366;
+
+    @Id
+    private String id;
+    @Indexed
+    private String userId;
+    private int year;
+    private List<Integer> counts;
+    private int total;
+
+    public static String idOf(String userId, int year) {
+        return userId + ":" + year;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.Backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.example.Backend.enums.CascadeTarget;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Checkpoint of a background cascade delete. step and offset are saved after every batch,
+// so a restarted job continues where it stopped.
+@Document(collection = "cascade_jobs")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CascadeJob {
+    public static final String PENDING = "PENDING";
+    public static final String DONE = "DONE";
+
+    @Id
+    private String id;
+    private CascadeTarget target;
+    private String targetId;
+    @Indexed
+    private String status;
+    // Index of the running step, see CascadeDeletionService.stepsFor
+    private int step;
+    // Position inside a list driven step, e.g. the follower list
+    private int offset;
+    private long deletedCount;
+    private Date createdAt;
+    private Date updatedAt;
+}
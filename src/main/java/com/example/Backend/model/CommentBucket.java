@@ -0,0 +1,33 @@
+package com.example.Backend.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Fixed-size group of a post's comments, oldest first inside the bucket.
+// count is the number of slots used and never goes down, so deleting a comment
+// does not reopen an old bucket and buckets stay in chronological order.
+@Document(collection = "post_comments")
+@CompoundIndex(name = "postId_createdAt_id", def = "{'postId': 1, 'createdAt': -1, '_id': -1}")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentBucket {
+    public static final int CAPACITY = 50;
+
+    @Id
+    private String id;
+    private String postId;
+    private int count;
+    private List<Comment> comments = new ArrayList<>();
+    private Date createdAt;
+    private Date updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.example.Backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// How far a log consumer has read, the id is the consumer's name
+@Document(collection = "consumer_offsets")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConsumerOffset {
+    @Id
+    private String id;
+    private String lastEventId;
+    private Date updatedAt;
+}
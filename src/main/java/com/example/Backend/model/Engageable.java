@@ -0,0 +1,19 @@
+package com.example.Backend.model;
+
+import java.util.Date;
+import java.util.List;
+
+// Documents that embed likes and comments and take part in the engagement log
+public interface Engageable {
+    String getId();
+
+    // Owner of the document, the user whose content is being engaged with
+    String getUserId();
+
+    List<Like> getLikes();
+
+    List<Comment> getComments();
+
+    // Tombstoned documents take no new engagement
+    Date getDeletedAt();
+}
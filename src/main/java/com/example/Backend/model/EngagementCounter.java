@@ -0,0 +1,38 @@
+package com.example.Backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.example.Backend.enums.EngagementTarget;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Engagement totals of one learning plan or progress entry, projected from the engagement log.
+// The id is TARGET:targetId, lastEventId makes replaying a batch of the log a no-op.
+@Document(collection = "engagement_counters")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EngagementCounter {
+    @Id
+    private String id;
+    private EngagementTarget target;
+    private String targetId;
+    @Indexed
+    private String ownerId;
+    private long likes;
+    private long comments;
+    private long commentEdits;
+    private long edits;
+    private String lastEventId;
+    private Date lastEngagedAt;
+
+    public static String idOf(EngagementTarget target, String targetId) {
+        return target + ":" + targetId;
+    }
+}
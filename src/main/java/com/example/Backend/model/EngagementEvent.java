@@ -0,0 +1,33 @@
+package com.example.Backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.example.Backend.enums.EngagementAction;
+import com.example.Backend.enums.EngagementTarget;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One entry of the append-only engagement log. Ids are ObjectIds assigned in append order by the
+// log writer, consumers read the log in _id order and remember the last id they applied.
+@Document(collection = "engagement_events")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EngagementEvent {
+    @Id
+    private String id;
+    private EngagementTarget target;
+    private String targetId;
+    // Owner of the target
+    private String ownerId;
+    private EngagementAction action;
+    // User who acted
+    private String userId;
+    private String commentId;
+    private Date createdAt;
+}
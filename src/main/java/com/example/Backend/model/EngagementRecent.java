@@ -0,0 +1,23 @@
+package com.example.Backend.model;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Latest likes and comments other users left on one user's plans and progress entries, oldest
+// first and capped with $slice. The id is the owner's user id.
+@Document(collection = "engagement_recent")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EngagementRecent {
+    @Id
+    private String id;
+    private List<EngagementEvent> events;
+    private String lastEventId;
+}
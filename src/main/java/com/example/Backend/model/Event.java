@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -12,6 +14,11 @@ import lombok.NoArgsConstructor;
 
 // Event
 @Document(collection = "events")
+@CompoundIndexes({
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "participants_date", def = "{'participants': 1, 'date': 1}")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -28,4 +35,6 @@ public class Event {
     private List<String> participants = new ArrayList<>();
     private long createdAt;
     private long updatedAt;
+    // Epoch millis, set when the owner's account is deleted; CascadeDeletionService removes the document later
+    private Long deletedAt;
 }
\ No newline at end of file
@@ -4,28 +4,54 @@ import java.util.Date;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 @Document(collection = "learning_plan")
-public class LearningPlan {
+@CompoundIndexes({
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "forkOf_createdAt_id", def = "{'forkOf': 1, 'createdAt': -1, '_id': -1}")
+})
+public class LearningPlan implements Engageable {
+    public static final String TOPICS_FIELD = "topicList";
+
     @Id
     private String id;
     private String userId;
     private String userName;
     private String title;
     private String description;
-    private String topics;
+    // Stored as topicList, older documents kept free-form text under topics (see DataMigrationConfig)
+    @Field(TOPICS_FIELD)
+    private List<PlanTopic> topics;
+    private int topicCount;
     private String resources;
     private Date createdAt;
     private Date updatedAt;
+    // Set when the owner's account is deleted, CascadeDeletionService removes the document later
+    private Date deletedAt;
     private List<Like> likes;
     private List<Comment> comments;
+    // Bumped on every change to title, description, topics or resources
+    private int revision;
+    // Forks store only the content fields they override, null fields are read from forkOf at forkRevision
+    private String forkOf;
+    private int forkRevision;
+    // Ancestor plan ids, root first, so a whole fork tree is one indexed lookup
+    @Indexed
+    private List<String> lineage;
+    // Number of direct forks, kept up to date with $inc
+    private int forkCount;
 
     // Getters, setters, constructors
     public LearningPlan() {
     }
 
-    public LearningPlan(String id, String userId, String userName, String title, String description, String topics,
+    public LearningPlan(String id, String userId, String userName, String title, String description, List<PlanTopic> topics,
             String resources, Date createdAt, Date updatedAt, List<Like> likes, List<Comment> comments) {
         this.id = id;
         this.userId = userId;
@@ -80,14 +106,22 @@ public class LearningPlan {
         this.description = description;
     }
 
-    public String getTopics() {
+    public List<PlanTopic> getTopics() {
         return topics;
     }
 
-    public void setTopics(String topics) {
+    public void setTopics(List<PlanTopic> topics) {
         this.topics = topics;
     }
 
+    public int getTopicCount() {
+        return topicCount;
+    }
+
+    public void setTopicCount(int topicCount) {
+        this.topicCount = topicCount;
+    }
+
     public String getResources() {
         return resources;
     }
@@ -112,6 +146,14 @@ public class LearningPlan {
         this.updatedAt = updatedAt;
     }
 
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Date deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     public List<Like> getLikes() {
         return likes;
     }
@@ -128,4 +170,44 @@ public class LearningPlan {
         this.comments = comments;
     }
 
+    public int getRevision() {
+        return revision;
+    }
+
+    public void setRevision(int revision) {
+        this.revision = revision;
+    }
+
+    public String getForkOf() {
+        return forkOf;
+    }
+
+    public void setForkOf(String forkOf) {
+        this.forkOf = forkOf;
+    }
+
+    public int getForkRevision() {
+        return forkRevision;
+    }
+
+    public void setForkRevision(int forkRevision) {
+        this.forkRevision = forkRevision;
+    }
+
+    public List<String> getLineage() {
+        return lineage;
+    }
+
+    public void setLineage(List<String> lineage) {
+        this.lineage = lineage;
+    }
+
+    public int getForkCount() {
+        return forkCount;
+    }
+
+    public void setForkCount(int forkCount) {
+        this.forkCount = forkCount;
+    }
+
 }
@@ -6,14 +6,20 @@ import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 //create learning prograss modle
 
 @Document(collection = "learning_progress")
+@CompoundIndexes({
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
+})
 @AllArgsConstructor
 @NoArgsConstructor
-public class LearningProgress {
+public class LearningProgress implements Engageable {
     @Id
     private String id;
     private String userId;
@@ -29,6 +35,8 @@ public class LearningProgress {
     private String nextSteps;
     private Date createdAt;
     private Date updatedAt;
+    // Set when the owner's account is deleted, CascadeDeletionService removes the document later
+    private Date deletedAt;
     private List<Like> likes;
     private List<Comment> comments;
 
@@ -145,6 +153,14 @@ public class LearningProgress {
         this.updatedAt = updatedAt;
     }
 
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Date deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     public List<Like> getLikes() {
         return likes;
     }
@@ -0,0 +1,15 @@
+package com.example.Backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Downscaled copies of one uploaded image, embedded in the post that uses it
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaVariant {
+    private String originalUrl;
+    private String thumbnailUrl;
+    private String mediumUrl;
+}
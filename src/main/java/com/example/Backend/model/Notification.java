@@ -1,21 +1,44 @@
 package com.example.Backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.Date;
+import java.util.List;
 
 @Document(collection = "notifications")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_postId_type_read_windowStart",
+                def = "{'userId': 1, 'postId': 1, 'type': 1, 'read': 1, 'windowStart': -1}")
+})
 public class Notification {
     @Id
     private String id;
     private String userId;
     private String type;
+    @Indexed
     private String postId;
+    @Indexed
     private String triggerUserId;
     private String message;
     private boolean read;
+    // Time of the latest merged like or comment
     private Date createdAt;
+    // Likes or comments of the same type on the same post within one window share a document.
+    // triggerUserId is the latest actor, recentActors the last few, newest last.
+    // actorIds holds the last distinct actors, capped at notification.coalesce.tracked-actors, so a
+    // user liking twice is counted once unless enough others acted in between.
+    private int actorCount;
+    @JsonIgnore
+    private List<String> actorIds;
+    private List<NotificationActor> recentActors;
+    private Date windowStart;
 
     public Notification() {
     }
@@ -28,6 +51,7 @@ public class Notification {
         this.message = message;
         this.read = false;
         this.createdAt = new Date();
+        this.actorCount = 1;
     }
 
     // Getters and Setters
@@ -94,4 +118,36 @@ public class Notification {
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
     }
-}
\ No newline at end of file
+
+    public int getActorCount() {
+        return actorCount;
+    }
+
+    public void setActorCount(int actorCount) {
+        this.actorCount = actorCount;
+    }
+
+    public List<String> getActorIds() {
+        return actorIds;
+    }
+
+    public void setActorIds(List<String> actorIds) {
+        this.actorIds = actorIds;
+    }
+
+    public List<NotificationActor> getRecentActors() {
+        return recentActors;
+    }
+
+    public void setRecentActors(List<NotificationActor> recentActors) {
+        this.recentActors = recentActors;
+    }
+
+    public Date getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(Date windowStart) {
+        this.windowStart = windowStart;
+    }
+}
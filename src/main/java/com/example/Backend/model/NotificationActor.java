@@ -0,0 +1,14 @@
+package com.example.Backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One of the users behind a coalesced notification
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationActor {
+    private String userId;
+    private String name;
+}
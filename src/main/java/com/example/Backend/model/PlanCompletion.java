@@ -0,0 +1,34 @@
+package com.example.Backend.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The topics one user ticked off in one learning plan. Kept out of the plan document so ticking
+// never writes to a plan other users read and edit. The id is planId:userId.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "learning_plan_completions")
+public class PlanCompletion {
+    @Id
+    private String id;
+    @Indexed
+    private String planId;
+    @Indexed
+    private String userId;
+    private List<String> topicIds = new ArrayList<>();
+    private Date updatedAt;
+
+    public static String idOf(String planId, String userId) {
+        return planId + ":" + userId;
+    }
+}
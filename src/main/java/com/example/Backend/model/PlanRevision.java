@@ -0,0 +1,33 @@
+package com.example.Backend.model;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Content of a learning plan at one revision, written only when a plan with forks is about to change.
+// The id is planId:revision, so writing the same snapshot twice is harmless.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "learning_plan_revisions")
+public class PlanRevision {
+    @Id
+    private String id;
+    private String planId;
+    private int revision;
+    private String title;
+    private String description;
+    private List<PlanTopic> topics;
+    private String resources;
+    private Date createdAt;
+
+    public static String idOf(String planId, int revision) {
+        return planId + ":" + revision;
+    }
+}
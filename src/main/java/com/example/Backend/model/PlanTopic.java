@@ -0,0 +1,16 @@
+package com.example.Backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One entry of a learning plan's ordered topic list
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlanTopic {
+    private String id;
+    private String title;
+    // Links or notes for this topic
+    private String resources;
+}
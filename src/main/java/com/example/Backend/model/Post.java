@@ -6,9 +6,16 @@ import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "posts")
+@CompoundIndexes({
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Post {
@@ -17,11 +24,20 @@ public class Post {
     private String userId;
     private String userName;
     private String description;
+    // Multikey index, new derivatives look up the posts that use an original by its URL
+    @Indexed
     private List<String> mediaUrls;
+    // Thumbnail and medium sized copies of the images in mediaUrls, added once they are generated
+    private List<MediaVariant> mediaVariants;
     private Date createdAt;
     private Date updatedAt;
     private List<Like> likes;
-    private List<Comment> comments;
+    private int likeCount;
+    // Comments live in CommentBucket documents, the post only keeps the newest few and a count
+    private List<Comment> recentComments;
+    private int commentCount;
+    // Set when the post is deleted, CascadeDeletionService removes the document and its dependents later
+    private Date deletedAt;
 
     public String getId() {
         return id;
@@ -63,6 +79,14 @@ public class Post {
         this.mediaUrls = mediaUrls;
     }
 
+    public List<MediaVariant> getMediaVariants() {
+        return mediaVariants;
+    }
+
+    public void setMediaVariants(List<MediaVariant> mediaVariants) {
+        this.mediaVariants = mediaVariants;
+    }
+
     public Date getCreatedAt() {
         return createdAt;
     }
@@ -79,6 +103,14 @@ public class Post {
         this.updatedAt = (Date) updatedAt;
     }
 
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Date deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     public List<Like> getLikes() {
         return likes;
     }
@@ -87,11 +119,27 @@ public class Post {
         this.likes = likes;
     }
 
-    public List<Comment> getComments() {
-        return comments;
+    public int getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(int likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public List<Comment> getRecentComments() {
+        return recentComments;
+    }
+
+    public void setRecentComments(List<Comment> recentComments) {
+        this.recentComments = recentComments;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
     }
 
-    public void setComments(List<Comment> comments) {
-        this.comments = comments;
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
     }
 }
@@ -0,0 +1,25 @@
+package com.example.Backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Progress of a one-off rebuild of a projection from existing documents. The id is the rebuild's name.
+// cutoff is fixed by the first attempt: the rebuild only reads what was created before it, anything
+// newer is recorded live. position is the last unit fully applied, completedAt is set once at the end.
+@Document(collection = "rebuild_checkpoints")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RebuildCheckpoint {
+    @Id
+    private String id;
+    private Date cutoff;
+    private String position;
+    private Date completedAt;
+}
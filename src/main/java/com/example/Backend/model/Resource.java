@@ -4,10 +4,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 
 @Document(collection = "resources")
+@CompoundIndexes({
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -21,4 +27,6 @@ public class Resource {
     private String url;
     private long createdAt;
     private long updatedAt;
+    // Epoch millis, set when the owner's account is deleted; CascadeDeletionService removes the document later
+    private Long deletedAt;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.Backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Number of a user's learning progress entries that list a skill. The id is userId:skill,
+// the index serves "most practiced skills first" for one user without touching the entries.
+@Document(collection = "user_skills")
+@CompoundIndex(name = "userId_count_skill", def = "{'userId': 1, 'count': -1, 'skill': 1}")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SkillCount {
+    @Id
+    private String id;
+    private String userId;
+    private String skill;
+    private int count;
+
+    public static String idOf(String userId, String skill) {
+        return userId + ":" + skill;
+    }
+}
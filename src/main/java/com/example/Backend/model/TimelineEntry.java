@@ -0,0 +1,34 @@
+package com.example.Backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One post on one user's home timeline, written at post time (fan-out-on-write).
+// createdAt is the post's creation time so the timeline reads in post order.
+@Document(collection = "timelines")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_createdAt_postId", def = "{'userId': 1, 'createdAt': -1, 'postId': -1}"),
+        @CompoundIndex(name = "userId_postId", def = "{'userId': 1, 'postId': 1}", unique = true),
+        @CompoundIndex(name = "userId_authorId", def = "{'userId': 1, 'authorId': 1}")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimelineEntry {
+    @Id
+    private String id;
+    private String userId;
+    @Indexed
+    private String postId;
+    private String authorId;
+    private Date createdAt;
+}
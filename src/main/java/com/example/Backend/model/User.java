@@ -9,6 +9,7 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 @Document(collection = "users")
@@ -39,6 +40,12 @@ public class User {
 
     private List<String> skills = new ArrayList<>();
 
+    // Set on every save by UserUpdatedAtCallback
+    private Date updatedAt;
+
+    // Set when the account is deleted, CascadeDeletionService removes the document and its content later
+    private Date deletedAt;
+
     public String getBio() {
         return bio;
     }
@@ -129,4 +136,20 @@ public class User {
         this.followedUsers = followedUsers;
     }
 
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Date deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
 }
@@ -0,0 +1,23 @@
+package com.example.Backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Running learning streak of one user, advanced on every recorded activity. The id is the user id.
+@Document(collection = "user_activity")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserActivity {
+    @Id
+    private String id;
+    // Consecutive active days ending at lastActiveDay
+    private int currentStreak;
+    private int longestStreak;
+    // LocalDate.toEpochDay() in the activity time zone
+    private long lastActiveDay;
+}
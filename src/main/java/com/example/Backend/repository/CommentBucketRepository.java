@@ -0,0 +1,25 @@
+package com.example.Backend.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.Backend.model.CommentBucket;
+
+@Repository
+public interface CommentBucketRepository extends MongoRepository<CommentBucket, String> {
+
+    // Keyset pages on the (postId, createdAt, _id) index, newest bucket first
+    @Query(value = "{ 'postId': ?0 }", sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<CommentBucket> findPageByPostId(String postId, Pageable pageable);
+
+    @Query(value = "{ 'postId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<CommentBucket> findPageByPostIdBefore(String postId, Date createdAt, Object id, Pageable pageable);
+
+    void deleteByPostId(String postId);
+}
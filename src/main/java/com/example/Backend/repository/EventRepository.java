@@ -2,7 +2,9 @@ package com.example.Backend.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.example.Backend.model.Event;
@@ -11,4 +13,23 @@ import com.example.Backend.model.Event;
 @Repository
 public interface EventRepository extends MongoRepository<Event, String> {
     List<Event> findByUserId(String userId);
+
+    // Keyset pages on the (createdAt, _id) index, newest first
+    @Query(value = "{ 'deletedAt': null }", sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Event> findPage(Pageable pageable);
+
+    @Query(value = "{ 'deletedAt': null, '$or': [ { 'createdAt': { '$lt': ?0 } }, { 'createdAt': ?0, '_id': { '$lt': ?1 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Event> findPageBefore(long createdAt, Object id, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'deletedAt': null }", sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Event> findPageByUserId(String userId, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'deletedAt': null, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Event> findPageByUserIdBefore(String userId, long createdAt, Object id, Pageable pageable);
+
+    // Dates are stored as yyyy-MM-dd, so comparing the strings compares the days
+    @Query("{ 'participants': ?0, 'deletedAt': null, 'date': { '$gte': ?1 } }")
+    List<Event> findUpcomingByParticipant(String userId, String fromDate);
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.example.Backend.repository;
 
 import com.example.Backend.model.LearningPlan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -16,4 +19,19 @@ public interface LearningPlanRepository extends MongoRepository<LearningPlan, St
     List<LearningPlan> findByUserId(String userId);
 
     List<LearningPlan> findByUserIdOrderByCreatedAtDesc(String userId);
+
+    // Keyset pages on the (createdAt, _id) index, newest first
+    @Query(value = "{ 'deletedAt': null }", sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<LearningPlan> findPage(Pageable pageable);
+
+    @Query(value = "{ 'deletedAt': null, '$or': [ { 'createdAt': { '$lt': ?0 } }, { 'createdAt': ?0, '_id': { '$lt': ?1 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<LearningPlan> findPageBefore(Date createdAt, Object id, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'deletedAt': null }", sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<LearningPlan> findPageByUserId(String userId, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'deletedAt': null, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<LearningPlan> findPageByUserIdBefore(String userId, Date createdAt, Object id, Pageable pageable);
 }
@@ -1,11 +1,23 @@
 package com.example.Backend.repository;
 
 import com.example.Backend.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Date;
 import java.util.List;
 
 public interface NotificationRepository extends MongoRepository<Notification, String> {
     List<Notification> findByUserIdOrderByCreatedAtDesc(String userId);
 
     List<Notification> findByUserIdAndReadFalse(String userId);
-}
\ No newline at end of file
+
+    // Keyset pages on the (userId, createdAt, _id) index, newest first
+    @Query(value = "{ 'userId': ?0 }", sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Notification> findPageByUserId(String userId, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Notification> findPageByUserIdBefore(String userId, Date createdAt, Object id, Pageable pageable);
+}
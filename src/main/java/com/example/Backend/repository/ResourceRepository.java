@@ -2,7 +2,9 @@ package com.example.Backend.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.example.Backend.model.Resource;
@@ -10,5 +12,20 @@ import com.example.Backend.model.Resource;
 @Repository
 public interface ResourceRepository extends MongoRepository<Resource, String> {
     List<Resource> findByUserId(String userId);
-    List<Resource> findByTitleContainingIgnoreCase(String title);
-}
\ No newline at end of file
+    List<Resource> findByTitleContainingIgnoreCaseAndDeletedAtIsNull(String title);
+
+    // Keyset pages on the (createdAt, _id) index, newest first
+    @Query(value = "{ 'deletedAt': null }", sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Resource> findPage(Pageable pageable);
+
+    @Query(value = "{ 'deletedAt': null, '$or': [ { 'createdAt': { '$lt': ?0 } }, { 'createdAt': ?0, '_id': { '$lt': ?1 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Resource> findPageBefore(long createdAt, Object id, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'deletedAt': null }", sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Resource> findPageByUserId(String userId, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'deletedAt': null, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Resource> findPageByUserIdBefore(String userId, long createdAt, Object id, Pageable pageable);
+}
@@ -32,7 +32,7 @@ public class AuthService {
     }
 
     public Optional<User> login(LoginRequest request) {
-        Optional<User> user = userRepository.findByEmail(request.getEmail());
+        Optional<User> user = userRepository.findByEmail(request.getEmail()).filter(u -> u.getDeletedAt() == null);
         if (user.isPresent() && passwordEncoder.matches(request.getPassword(), user.get().getPassword())) {
             User existingUser = new User();
             existingUser.setId(user.get().getId());
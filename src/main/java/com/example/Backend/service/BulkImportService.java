@@ -0,0 +1,314 @@
+package com.example.Backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.dto.EventDTO;
+import com.example.Backend.dto.ImportRejectionDTO;
+import com.example.Backend.dto.ImportReportDTO;
+import com.example.Backend.dto.ResourceDTO;
+import com.example.Backend.enums.ImportType;
+import com.example.Backend.model.Event;
+import com.example.Backend.model.Post;
+import com.example.Backend.model.Resource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+
+// Imports JSON lines (one record per line) into posts, resources or events. The upload is read as a
+// stream, every record goes through the same validation as the single create endpoints, and valid
+// documents are written with unordered insertMany batches. At most import.parallelism batches of
+// one import are in flight; the reader blocks until a slot frees up, so memory stays bounded.
+@Service
+public class BulkImportService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private ResourceService resourceService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private UserActivityService userActivityService;
+
+    @Autowired
+    @Qualifier("importExecutor")
+    private ThreadPoolTaskExecutor importExecutor;
+
+    @Value("${import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${import.parallelism:4}")
+    private int parallelism;
+
+    @Value("${import.max-reported-rejections:100}")
+    private int maxReportedRejections;
+
+    @Value("${import.progress-log-every:100000}")
+    private long progressLogEvery;
+
+    private final Map<String, ImportJob> running = new ConcurrentHashMap<>();
+
+    // Runs on the calling thread until the whole stream is read and every batch is written
+    public ImportReportDTO importJsonLines(ImportType type, InputStream in) {
+        ImportJob job = new ImportJob(type);
+        running.put(job.id, job);
+        String collection = mongoTemplate.getCollectionName(type.getDocumentClass());
+        Semaphore inFlight = new Semaphore(parallelism);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            Batch batch = new Batch(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (job.recordsRead.incrementAndGet() % progressLogEvery == 0) {
+                    logProgress(job);
+                }
+                Object entity;
+                try {
+                    entity = toEntity(type, line);
+                } catch (JsonProcessingException e) {
+                    job.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    job.reject(lineNumber, e.getMessage());
+                    continue;
+                }
+                Document document = new Document();
+                mongoTemplate.getConverter().write(entity, document);
+                batch.add(lineNumber, entity, document);
+                if (batch.size() >= batchSize) {
+                    submit(job, collection, batch, inFlight);
+                    batch = new Batch(batchSize);
+                }
+            }
+            if (batch.size() > 0) {
+                submit(job, collection, batch, inFlight);
+            }
+            job.status = "COMPLETED";
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Import {} of {} stopped", job.id, type, e);
+            job.status = "FAILED";
+            job.error = e.getMessage();
+        } finally {
+            // Every permit back means every submitted batch has finished
+            inFlight.acquireUninterruptibly(parallelism);
+            running.remove(job.id);
+        }
+        ImportReportDTO report = job.report();
+        logger.info("Import {} of {} {}: {} read, {} inserted, {} duplicates, {} rejected in {} ms",
+                job.id, type, report.getStatus(), report.getRecordsRead(), report.getInserted(),
+                report.getDuplicates(), report.getRejected(), report.getElapsedMs());
+        return report;
+    }
+
+    public List<ImportReportDTO> getRunningImports() {
+        return running.values().stream().map(ImportJob::report).collect(Collectors.toList());
+    }
+
+    // Parses and validates one record. An id or createdAt from the source system is kept, so
+    // re-running an interrupted import skips what was already written (counted as duplicates)
+    private Object toEntity(ImportType type, String line) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        String id = node.hasNonNull("id") ? node.get("id").asText() : new ObjectId().toHexString();
+        switch (type) {
+            case POSTS: {
+                Post post = objectMapper.treeToValue(node, Post.class);
+                Date createdAt = post.getCreatedAt();
+                postService.preparePost(post);
+                post.setId(id);
+                if (createdAt != null) {
+                    post.setCreatedAt(createdAt);
+                    post.setUpdatedAt(createdAt);
+                }
+                return post;
+            }
+            case RESOURCES: {
+                Resource resource = resourceService.newResource(node.path("userId").asText(null),
+                        objectMapper.treeToValue(node, ResourceDTO.class));
+                resource.setId(id);
+                if (node.path("createdAt").isNumber()) {
+                    resource.setCreatedAt(node.get("createdAt").asLong());
+                    resource.setUpdatedAt(resource.getCreatedAt());
+                }
+                return resource;
+            }
+            default: {
+                Event event = eventService.newEvent(node.path("userId").asText(null),
+                        objectMapper.treeToValue(node, EventDTO.class));
+                event.setId(id);
+                if (node.path("createdAt").isNumber()) {
+                    event.setCreatedAt(node.get("createdAt").asLong());
+                    event.setUpdatedAt(event.getCreatedAt());
+                }
+                return event;
+            }
+        }
+    }
+
+    private void submit(ImportJob job, String collection, Batch batch, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        try {
+            importExecutor.execute(() -> {
+                try {
+                    insert(job, collection, batch);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void insert(ImportJob job, String collection, Batch batch) {
+        Set<Integer> failed = Collections.emptySet();
+        try {
+            mongoTemplate.getCollection(collection).insertMany(batch.documents, new InsertManyOptions().ordered(false));
+            job.inserted.addAndGet(batch.size());
+        } catch (MongoBulkWriteException e) {
+            // Unordered: everything except the reported indexes was written
+            failed = new HashSet<>();
+            for (BulkWriteError error : e.getWriteErrors()) {
+                failed.add(error.getIndex());
+                if (error.getCode() == DUPLICATE_KEY) {
+                    job.duplicates.incrementAndGet();
+                } else {
+                    job.reject(batch.lines[error.getIndex()], error.getMessage());
+                }
+            }
+            job.inserted.addAndGet(e.getWriteResult().getInsertedCount());
+        } catch (RuntimeException e) {
+            logger.warn("Import {} batch failed", job.id, e);
+            for (int i = 0; i < batch.size(); i++) {
+                job.reject(batch.lines[i], "Write failed: " + e.getMessage());
+            }
+            return;
+        }
+        Map<String, List<Date>> postDates = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed.contains(i) && batch.entities.get(i) instanceof Post post) {
+                postSearchIndex.index(post.getId(), post.getDescription(), post.getUserName());
+                if (post.getUserId() != null) {
+                    postDates.computeIfAbsent(post.getUserId(), userId -> new ArrayList<>()).add(post.getCreatedAt());
+                }
+            }
+        }
+        // Imported posts count towards their authors' heatmap and streaks like created ones
+        userActivityService.recordAll(postDates);
+    }
+
+    private void logProgress(ImportJob job) {
+        ImportReportDTO report = job.report();
+        logger.info("Import {} of {}: {} read, {} inserted, {} rejected, {} records/s", job.id, job.type,
+                report.getRecordsRead(), report.getInserted(), report.getRejected(), report.getRecordsPerSecond());
+    }
+
+    // Documents of one insertMany call with the source line of each, for error reporting
+    private static class Batch {
+        private final List<Document> documents;
+        private final List<Object> entities;
+        private final long[] lines;
+
+        Batch(int capacity) {
+            documents = new ArrayList<>(capacity);
+            entities = new ArrayList<>(capacity);
+            lines = new long[capacity];
+        }
+
+        void add(long line, Object entity, Document document) {
+            lines[documents.size()] = line;
+            documents.add(document);
+            entities.add(entity);
+        }
+
+        int size() {
+            return documents.size();
+        }
+    }
+
+    // Counters are updated by the reader thread and by the import workers
+    private class ImportJob {
+        private final String id = UUID.randomUUID().toString();
+        private final ImportType type;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong recordsRead = new AtomicLong();
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<ImportRejectionDTO> rejections = Collections.synchronizedList(new ArrayList<>());
+        private volatile String status = "RUNNING";
+        private volatile String error;
+
+        ImportJob(ImportType type) {
+            this.type = type;
+        }
+
+        void reject(long line, String reason) {
+            if (rejected.incrementAndGet() <= maxReportedRejections) {
+                rejections.add(new ImportRejectionDTO(line, reason));
+            }
+        }
+
+        ImportReportDTO report() {
+            long elapsedMs = Math.max(1, System.currentTimeMillis() - startedAt);
+            List<ImportRejectionDTO> reported;
+            synchronized (rejections) {
+                reported = new ArrayList<>(rejections);
+            }
+            return new ImportReportDTO(id, type.name(), status, recordsRead.get(), inserted.get(),
+                    duplicates.get(), rejected.get(), elapsedMs, inserted.get() * 1000 / elapsedMs, reported, error);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.Backend.service;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.enums.CascadeTarget;
+import com.example.Backend.model.ActivityYear;
+import com.example.Backend.model.CascadeJob;
+import com.example.Backend.model.CommentBucket;
+import com.example.Backend.model.EngagementCounter;
+import com.example.Backend.model.EngagementRecent;
+import com.example.Backend.model.Event;
+import com.example.Backend.model.LearningPlan;
+import com.example.Backend.model.LearningProgress;
+import com.example.Backend.model.Notification;
+import com.example.Backend.model.PlanCompletion;
+import com.example.Backend.model.Post;
+import com.example.Backend.model.Resource;
+import com.example.Backend.model.SkillCount;
+import com.example.Backend.model.TimelineEntry;
+import com.example.Backend.model.User;
+import com.example.Backend.model.UserActivity;
+
+import jakarta.annotation.PreDestroy;
+
+// Deletes posts and accounts in two phases. The item is tombstoned (deletedAt) right away so reads
+// stop returning it, then one background worker removes the dependent documents in batches of
+// cascade.batch-size with a pause in between. Each batch is checkpointed in a CascadeJob, and
+// unfinished jobs are resumed at startup from their last step instead of starting over.
+//
+// Deleting an account hides, before the request returns: the user, their posts, learning plans,
+// progress entries, events and resources (tombstoned), and drops their per-user projections (skill
+// index, activity heatmap and streaks, engagement counters and recent engagement). Kept until the
+// background job reaches them: notifications addressed to or triggered by the user, timeline copies,
+// follow references and the user's topic completions. Kept for good: the user's likes and comments
+// on other users' content.
+@Service
+public class CascadeDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CascadeDeletionService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private PlanRevisionStore planRevisionStore;
+
+    @Autowired
+    private PlanSimilarityIndex planSimilarityIndex;
+
+    @Value("${cascade.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cascade.pause-ms:20}")
+    private long pauseMs;
+
+    @Value("${cascade.retry-delay-seconds:60}")
+    private long retryDelaySeconds;
+
+    // A single worker keeps cascades from competing with user traffic for write capacity
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cascade-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // One batch of a step, returns true once the step has nothing left to delete
+    private interface Step {
+        boolean runBatch(CascadeJob job);
+    }
+
+    // Hides the post now, its comments, timeline copies and notifications go in the background
+    public CascadeJob deletePost(String postId) {
+        Date now = new Date();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(postId)),
+                new Update().set("deletedAt", now).set("updatedAt", now), Post.class);
+        forgetPosts(Collections.singletonList(postId));
+        return enqueue(CascadeTarget.POST, postId);
+    }
+
+    // Hides the account and all of its posts now, everything else goes in the background
+    public CascadeJob deleteUser(String userId) {
+        Date now = new Date();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(userId)),
+                new Update().set("deletedAt", now).set("updatedAt", now), User.class);
+        mongoTemplate.updateMulti(Query.query(Criteria.where("userId").is(userId).and("deletedAt").is(null)),
+                new Update().set("deletedAt", now).set("updatedAt", now), Post.class);
+        Query postIds = Query.query(Criteria.where("userId").is(userId));
+        postIds.fields().include("id");
+        forgetPosts(mongoTemplate.find(postIds, Post.class).stream().map(Post::getId).collect(Collectors.toList()));
+
+        Query live = Query.query(Criteria.where("userId").is(userId).and("deletedAt").is(null));
+        Update tombstone = new Update().set("deletedAt", now).set("updatedAt", now);
+        mongoTemplate.updateMulti(live, tombstone, LearningPlan.class);
+        mongoTemplate.updateMulti(live, tombstone, LearningProgress.class);
+        // Events and resources keep their timestamps as epoch millis
+        Update millisTombstone = new Update().set("deletedAt", now.getTime()).set("updatedAt", now.getTime());
+        mongoTemplate.updateMulti(live, millisTombstone, Event.class);
+        mongoTemplate.updateMulti(live, millisTombstone, Resource.class);
+        Query planIds = Query.query(Criteria.where("userId").is(userId));
+        planIds.fields().include("id");
+        mongoTemplate.find(planIds, LearningPlan.class).forEach(plan -> planSimilarityIndex.remove(plan.getId()));
+
+        // A handful of documents per user, derived from the content hidden above
+        Query owned = Query.query(Criteria.where("userId").is(userId));
+        mongoTemplate.remove(owned, SkillCount.class);
+        mongoTemplate.remove(owned, ActivityYear.class);
+        mongoTemplate.remove(Query.query(Criteria.where("ownerId").is(userId)), EngagementCounter.class);
+        mongoTemplate.remove(Query.query(Criteria.where("id").is(userId)), UserActivity.class);
+        mongoTemplate.remove(Query.query(Criteria.where("id").is(userId)), EngagementRecent.class);
+        return enqueue(CascadeTarget.USER, userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        worker.execute(() -> {
+            try {
+                List<CascadeJob> pending = mongoTemplate.find(
+                        Query.query(Criteria.where("status").is(CascadeJob.PENDING)), CascadeJob.class);
+                for (CascadeJob job : pending) {
+                    logger.info("Resuming cascade delete of {} {} at step {}", job.getTarget(), job.getTargetId(),
+                            job.getStep());
+                    run(job.getId());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not resume cascade deletes: {}", e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private CascadeJob enqueue(CascadeTarget target, String targetId) {
+        Date now = new Date();
+        CascadeJob job = mongoTemplate.insert(
+                new CascadeJob(null, target, targetId, CascadeJob.PENDING, 0, 0, 0, now, now));
+        worker.execute(() -> run(job.getId()));
+        return job;
+    }
+
+    private void run(String jobId) {
+        CascadeJob job = mongoTemplate.findById(jobId, CascadeJob.class);
+        if (job == null || CascadeJob.DONE.equals(job.getStatus())) {
+            return;
+        }
+        List<Step> steps = stepsFor(job);
+        try {
+            while (job.getStep() < steps.size()) {
+                if (steps.get(job.getStep()).runBatch(job)) {
+                    job.setStep(job.getStep() + 1);
+                    job.setOffset(0);
+                }
+                checkpoint(job);
+                pause();
+            }
+            job.setStatus(CascadeJob.DONE);
+            checkpoint(job);
+            logger.info("Cascade delete of {} {} removed {} documents", job.getTarget(), job.getTargetId(),
+                    job.getDeletedCount());
+        } catch (RuntimeException e) {
+            if (worker.isShutdown()) {
+                return;
+            }
+            logger.warn("Cascade delete of {} {} stopped at step {}, retrying in {}s: {}", job.getTarget(),
+                    job.getTargetId(), job.getStep(), retryDelaySeconds, e.getMessage());
+            worker.schedule(() -> run(jobId), retryDelaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    // The order is part of the checkpoint format, append new steps at the end of a list
+    private List<Step> stepsFor(CascadeJob job) {
+        String id = job.getTargetId();
+        if (job.getTarget() == CascadeTarget.POST) {
+            return List.of(
+                    j -> deleteBatch(j, Criteria.where("postId").is(id), CommentBucket.class),
+                    j -> deleteBatch(j, Criteria.where("postId").is(id), TimelineEntry.class),
+                    j -> deleteBatch(j, Criteria.where("postId").is(id), Notification.class),
+                    j -> deleteBatch(j, Criteria.where("_id").is(idValue(id)), Post.class));
+        }
+        return List.of(
+                this::purgePosts,
+                j -> deleteBatch(j, Criteria.where("userId").is(id), TimelineEntry.class),
+                this::purgePlans,
+                j -> deleteBatch(j, Criteria.where("userId").is(id), LearningProgress.class),
+                j -> deleteBatch(j, Criteria.where("userId").is(id), Event.class),
+                j -> deleteBatch(j, Criteria.where("userId").is(id), Resource.class),
+                j -> deleteBatch(j, Criteria.where("userId").is(id), Notification.class),
+                j -> deleteBatch(j, Criteria.where("triggerUserId").is(id), Notification.class),
+                j -> pullFollowReferences(j, "followingUsers", "followedUsers"),
+                j -> pullFollowReferences(j, "followedUsers", "followingUsers"),
+                j -> deleteBatch(j, Criteria.where("_id").is(idValue(id)), User.class),
+                j -> deleteBatch(j, Criteria.where("userId").is(id), ActivityYear.class),
+                j -> deleteBatch(j, Criteria.where("_id").is(idValue(id)), UserActivity.class),
+                j -> deleteBatch(j, Criteria.where("userId").is(id), SkillCount.class),
+                j -> deleteBatch(j, Criteria.where("ownerId").is(id), EngagementCounter.class),
+                j -> deleteBatch(j, Criteria.where("_id").is(idValue(id)), EngagementRecent.class),
+                j -> deleteBatch(j, Criteria.where("userId").is(id), PlanCompletion.class));
+    }
+
+    // deleteBatch queries the raw collection, so generated ids must be passed as ObjectId
+    private static Object idValue(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    // Deleted documents drop out of the filter, so the next batch is again "the first N matches"
+    private boolean deleteBatch(CascadeJob job, Criteria filter, Class<?> type) {
+        String collection = mongoTemplate.getCollectionName(type);
+        Query query = Query.query(filter).limit(batchSize);
+        query.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(query, Document.class, collection).stream()
+                .map(document -> document.get("_id"))
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return true;
+        }
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), collection).getDeletedCount();
+        job.setDeletedCount(job.getDeletedCount() + deleted);
+        return ids.size() < batchSize;
+    }
+
+    private void deleteAll(CascadeJob job, Criteria filter, Class<?> type) {
+        while (!deleteBatch(job, filter, type)) {
+            pause();
+        }
+    }
+
+    // One batch of the user's posts together with everything that hangs off them
+    private boolean purgePosts(CascadeJob job) {
+        Query query = Query.query(Criteria.where("userId").is(job.getTargetId())).limit(batchSize);
+        query.fields().include("id");
+        List<String> postIds = mongoTemplate.find(query, Post.class).stream()
+                .map(Post::getId)
+                .collect(Collectors.toList());
+        if (postIds.isEmpty()) {
+            return true;
+        }
+        forgetPosts(postIds);
+        deleteAll(job, Criteria.where("postId").in(postIds), CommentBucket.class);
+        deleteAll(job, Criteria.where("postId").in(postIds), TimelineEntry.class);
+        deleteAll(job, Criteria.where("postId").in(postIds), Notification.class);
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("id").in(postIds)), Post.class)
+                .getDeletedCount();
+        job.setDeletedCount(job.getDeletedCount() + deleted);
+        return postIds.size() < batchSize;
+    }
+
+    // One batch of the user's learning plans. Plans other users forked leave a snapshot behind first,
+    // and a fork's source gets its count back after the fork is gone.
+    private boolean purgePlans(CascadeJob job) {
+        Query query = Query.query(Criteria.where("userId").is(job.getTargetId())).limit(batchSize);
+        query.fields().include("id", "title", "description", "topics", "resources", "revision", "forkOf",
+                "forkRevision", "forkCount");
+        List<LearningPlan> plans = mongoTemplate.find(query, LearningPlan.class);
+        if (plans.isEmpty()) {
+            return true;
+        }
+        plans.stream().filter(p -> p.getForkCount() > 0).forEach(planRevisionStore::snapshot);
+        List<String> planIds = plans.stream().map(LearningPlan::getId).collect(Collectors.toList());
+        deleteAll(job, Criteria.where("planId").in(planIds), PlanCompletion.class);
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("id").in(planIds)), LearningPlan.class)
+                .getDeletedCount();
+        job.setDeletedCount(job.getDeletedCount() + deleted);
+        for (LearningPlan plan : plans) {
+            if (plan.getForkOf() != null) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(plan.getForkOf())),
+                        new Update().inc("forkCount", -1), LearningPlan.class);
+            }
+        }
+        return plans.size() < batchSize;
+    }
+
+    // Removes the deleted user from the opposite list of everyone on one of its own lists.
+    // The user document is kept until the last step, so its lists are stable and offset stays valid.
+    private boolean pullFollowReferences(CascadeJob job, String ownList, String otherList) {
+        Query query = Query.query(Criteria.where("id").is(job.getTargetId()));
+        query.fields().include(ownList);
+        User user = mongoTemplate.findOne(query, User.class);
+        List<String> related = user == null ? null
+                : "followingUsers".equals(ownList) ? user.getFollowingUsers() : user.getFollowedUsers();
+        if (related == null || job.getOffset() >= related.size()) {
+            return true;
+        }
+        int end = Math.min(job.getOffset() + batchSize, related.size());
+        mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(related.subList(job.getOffset(), end))),
+                new Update().pull(otherList, job.getTargetId()).set("updatedAt", new Date()), User.class);
+        job.setOffset(end);
+        return end >= related.size();
+    }
+
+    private void forgetPosts(List<String> postIds) {
+        for (String postId : postIds) {
+            postCache.invalidate(postId);
+            trendingService.remove(postId);
+            postSearchIndex.remove(postId);
+        }
+    }
+
+    private void checkpoint(CascadeJob job) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(job.getId())),
+                new Update().set("step", job.getStep())
+                        .set("offset", job.getOffset())
+                        .set("deletedCount", job.getDeletedCount())
+                        .set("status", job.getStatus())
+                        .set("updatedAt", new Date()),
+                CascadeJob.class);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cascade delete interrupted");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.Backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.dto.PageCursor;
+
+// Weak ETags derived from updatedAt, read with projection-only queries so a conditional GET
+// that ends in 304 never loads or serializes the documents themselves
+@Service
+public class ETagService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // W/"<id>-<updatedAt>", null when the document does not exist
+    public String documentTag(Class<?> entityType, String id) {
+        return documentTag(entityType, id, null);
+    }
+
+    // Same, the document only counts as existing when it also matches filter (e.g. not tombstoned)
+    public String documentTag(Class<?> entityType, String id, Criteria filter) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        if (filter != null) {
+            query.addCriteria(filter);
+        }
+        query.fields().include("updatedAt");
+        Object version = mongoTemplate.findOne(query, entityType);
+        return version == null ? null : documentTag(id, toMillis(updatedAtOf(version)));
+    }
+
+    public String documentTag(String id, long updatedAt) {
+        return "W/\"" + id + "-" + Long.toString(updatedAt, 36) + "\"";
+    }
+
+    // Tag of one keyset page (newest first): a hash of the id and updatedAt of every row the
+    // page would return, so edits, inserts and deletes within the page all change it.
+    // variant is mixed in for responses that also depend on the caller, e.g. the viewer id.
+    // filter has to be the page query's own criteria, including any tombstone condition.
+    public String pageTag(Class<?> entityType, Criteria filter, String cursor, Integer limit, String variant) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        Query query = new Query();
+        if (filter != null) {
+            query.addCriteria(filter);
+        }
+        if (after != null) {
+            query.addCriteria(hasEpochMillisCreatedAt(entityType) ? after.toEpochMillisCriteria() : after.toCriteria());
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "id")).limit(pageSize + 1);
+        query.fields().include("updatedAt");
+        List<?> versions = mongoTemplate.find(query, entityType);
+
+        MessageDigest digest = sha256();
+        digest.update((pageSize + "|" + cursor + "|" + variant).getBytes(StandardCharsets.UTF_8));
+        MongoPersistentEntity<?> entity = persistentEntity(entityType);
+        for (Object version : versions) {
+            digest.update((entity.getIdentifierAccessor(version).getIdentifier() + ":"
+                    + toMillis(updatedAtOf(version)) + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 12) + "\"";
+    }
+
+    // Event and Resource store createdAt as epoch millis instead of a date
+    private boolean hasEpochMillisCreatedAt(Class<?> entityType) {
+        Class<?> type = persistentEntity(entityType).getRequiredPersistentProperty("createdAt").getType();
+        return type == long.class || type == Long.class;
+    }
+
+    // The projected entity only has its id and updatedAt set
+    private Object updatedAtOf(Object version) {
+        MongoPersistentEntity<?> entity = persistentEntity(version.getClass());
+        return entity.getPropertyAccessor(version).getProperty(entity.getRequiredPersistentProperty("updatedAt"));
+    }
+
+    private MongoPersistentEntity<?> persistentEntity(Class<?> entityType) {
+        return mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityType);
+    }
+
+    private static long toMillis(Object updatedAt) {
+        if (updatedAt instanceof Date date) {
+            return date.getTime();
+        }
+        if (updatedAt instanceof Number number) {
+            return number.longValue();
+        }
+        return 0L;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
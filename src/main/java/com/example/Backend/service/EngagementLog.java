@@ -0,0 +1,119 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.EngagementEvent;
+
+import jakarta.annotation.PreDestroy;
+
+// Append side of the engagement log. Callers only queue the event; one writer thread drains the
+// queue every flush-ms into unordered bulk inserts and gives every event an ObjectId in queue order,
+// so the log's _id order is the order events were appended in.
+@Component
+public class EngagementLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngagementLog.class);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final BlockingQueue<EngagementEvent> queue;
+    private final int batchSize;
+    private final long flushMillis;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engagement-log-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // A batch whose insert failed, retried before anything newer so the order is kept.
+    // Only touched from the writer thread.
+    private List<EngagementEvent> unwritten = new ArrayList<>();
+
+    public EngagementLog(MongoTemplate mongoTemplate,
+                         @Value("${engagement.log.capacity:100000}") int capacity,
+                         @Value("${engagement.log.batch-size:500}") int batchSize,
+                         @Value("${engagement.log.flush-ms:200}") long flushMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushMillis = flushMillis;
+        writer.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Blocks only when capacity events are waiting, i.e. when the database cannot keep up
+    public void append(EngagementEvent event) {
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Engagement event {} on {} {} was not logged", event.getAction(), event.getTarget(),
+                    event.getTargetId());
+        }
+    }
+
+    // Writes everything queued so far on the caller's thread and returns once it is in, for callers
+    // that checkpoint their own progress and must not get ahead of the log
+    public void awaitWritten() throws InterruptedException {
+        while (true) {
+            synchronized (this) {
+                flush();
+                if (unwritten.isEmpty()) {
+                    return;
+                }
+            }
+            TimeUnit.MILLISECONDS.sleep(flushMillis);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private synchronized void flush() {
+        try {
+            while (true) {
+                if (unwritten.isEmpty()) {
+                    queue.drainTo(unwritten, batchSize);
+                    if (unwritten.isEmpty()) {
+                        return;
+                    }
+                    unwritten.forEach(event -> event.setId(new ObjectId().toHexString()));
+                }
+                insert(unwritten);
+                unwritten = new ArrayList<>();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not write {} engagement events, retrying: {}", unwritten.size(), e.getMessage());
+        }
+    }
+
+    // Events that made it in before a failed attempt come back as duplicate keys on the retry
+    private void insert(List<EngagementEvent> events) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EngagementEvent.class)
+                    .insert(events)
+                    .execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+    }
+}
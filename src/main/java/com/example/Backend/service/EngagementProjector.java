@@ -0,0 +1,166 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.enums.EngagementAction;
+import com.example.Backend.model.ConsumerOffset;
+import com.example.Backend.model.EngagementCounter;
+import com.example.Backend.model.EngagementEvent;
+import com.example.Backend.model.EngagementRecent;
+
+import jakarta.annotation.PreDestroy;
+
+// Builds the engagement counters and the per-owner recent engagement lists from the engagement log.
+// Events are read in _id order after the consumer's saved offset. Each projection document is changed
+// once per batch and remembers the last event it includes, so a batch replayed after a crash between
+// applying it and saving the offset changes nothing.
+@Component
+public class EngagementProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngagementProjector.class);
+    private static final String CONSUMER = "engagement-projections";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${engagement.projector.batch-size:500}")
+    private int batchSize;
+
+    @Value("${engagement.projector.poll-ms:1000}")
+    private long pollMillis;
+
+    // Events are only read once they are this old, so a bulk insert still in progress cannot be skipped
+    @Value("${engagement.projector.settle-ms:2000}")
+    private long settleMillis;
+
+    @Value("${engagement.recent.size:50}")
+    private int recentSize;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engagement-projector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void poll() {
+        try {
+            while (projectBatch() == batchSize) {
+                // Keep going while the log is behind
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Engagement projection stopped, retrying: {}", e.getMessage());
+        }
+    }
+
+    private int projectBatch() {
+        ConsumerOffset offset = mongoTemplate.findById(CONSUMER, ConsumerOffset.class);
+        Criteria settled = Criteria.where("id").lt(new ObjectId(new Date(System.currentTimeMillis() - settleMillis)));
+        if (offset != null) {
+            settled = settled.gt(new ObjectId(offset.getLastEventId()));
+        }
+        Query query = Query.query(settled).with(Sort.by(Sort.Direction.ASC, "id")).limit(batchSize);
+        List<EngagementEvent> events = mongoTemplate.find(query, EngagementEvent.class);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        projectCounters(events);
+        projectRecent(events);
+        String lastEventId = events.get(events.size() - 1).getId();
+        mongoTemplate.save(new ConsumerOffset(CONSUMER, lastEventId, new Date()));
+        return events.size();
+    }
+
+    private void projectCounters(List<EngagementEvent> events) {
+        Map<String, List<EngagementEvent>> byTarget = new LinkedHashMap<>();
+        events.forEach(e -> byTarget.computeIfAbsent(EngagementCounter.idOf(e.getTarget(), e.getTargetId()),
+                key -> new ArrayList<>()).add(e));
+        for (Map.Entry<String, List<EngagementEvent>> target : byTarget.entrySet()) {
+            List<EngagementEvent> targetEvents = target.getValue();
+            EngagementEvent last = targetEvents.get(targetEvents.size() - 1);
+            if (last.getAction() == EngagementAction.DELETE) {
+                mongoTemplate.remove(Query.query(Criteria.where("id").is(target.getKey())), EngagementCounter.class);
+                continue;
+            }
+            Update update = new Update()
+                    .inc("likes", sum(targetEvents, EngagementAction.LIKE) - sum(targetEvents, EngagementAction.UNLIKE))
+                    .inc("comments", sum(targetEvents, EngagementAction.COMMENT)
+                            - sum(targetEvents, EngagementAction.COMMENT_DELETE))
+                    .inc("commentEdits", sum(targetEvents, EngagementAction.COMMENT_EDIT))
+                    .inc("edits", sum(targetEvents, EngagementAction.EDIT))
+                    .set("lastEventId", last.getId())
+                    .set("lastEngagedAt", last.getCreatedAt())
+                    .setOnInsert("target", last.getTarget())
+                    .setOnInsert("targetId", last.getTargetId())
+                    .setOnInsert("ownerId", last.getOwnerId());
+            upsertOnce(target.getKey(), last.getId(), update, EngagementCounter.class);
+        }
+    }
+
+    // Likes and comments by other users, newest kept
+    private void projectRecent(List<EngagementEvent> events) {
+        Map<String, List<EngagementEvent>> byOwner = new LinkedHashMap<>();
+        for (EngagementEvent event : events) {
+            boolean interaction = event.getAction() == EngagementAction.LIKE
+                    || event.getAction() == EngagementAction.COMMENT;
+            if (interaction && event.getOwnerId() != null && !event.getOwnerId().equals(event.getUserId())) {
+                byOwner.computeIfAbsent(event.getOwnerId(), key -> new ArrayList<>()).add(event);
+            }
+        }
+        for (Map.Entry<String, List<EngagementEvent>> owner : byOwner.entrySet()) {
+            List<EngagementEvent> ownerEvents = owner.getValue();
+            String lastEventId = ownerEvents.get(ownerEvents.size() - 1).getId();
+            Update update = new Update().set("lastEventId", lastEventId);
+            update.push("events").slice(-recentSize).each(ownerEvents.toArray());
+            upsertOnce(owner.getKey(), lastEventId, update, EngagementRecent.class);
+        }
+    }
+
+    // Applies the update unless the document already includes lastEventId. A document that exists but
+    // is up to date fails the filter, so the upsert then collides on _id; that is the replay case.
+    private void upsertOnce(String id, String lastEventId, Update update, Class<?> type) {
+        Query query = Query.query(Criteria.where("id").is(id).orOperator(
+                Criteria.where("lastEventId").lt(lastEventId),
+                Criteria.where("lastEventId").exists(false)));
+        try {
+            mongoTemplate.upsert(query, update, type);
+        } catch (DuplicateKeyException e) {
+            // Already applied
+        }
+    }
+
+    private static long sum(List<EngagementEvent> events, EngagementAction action) {
+        return events.stream().filter(e -> e.getAction() == action).count();
+    }
+}
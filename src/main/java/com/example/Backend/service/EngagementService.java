@@ -0,0 +1,287 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.enums.EngagementAction;
+import com.example.Backend.enums.EngagementTarget;
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.Engageable;
+import com.example.Backend.model.EngagementCounter;
+import com.example.Backend.model.EngagementEvent;
+import com.example.Backend.model.EngagementRecent;
+import com.example.Backend.model.Like;
+import com.example.Backend.model.RebuildCheckpoint;
+
+// Likes and comments on learning plans and progress entries. Each interaction is one atomic update
+// of the embedded list instead of a read and full rewrite, and every change that actually happened
+// is appended to the engagement log, which EngagementProjector turns into counters and recent lists.
+@Service
+public class EngagementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngagementService.class);
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    private static final String BACKFILL = "engagement-log";
+    private static final int BACKFILL_CHECKPOINT_EVERY = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier("startupExecutor")
+    private ExecutorService startupExecutor;
+
+    @Autowired
+    private EngagementLog engagementLog;
+
+    @Autowired
+    private RebuildCheckpoints rebuildCheckpoints;
+
+    // Beans are created before the web server takes requests, so no like or comment was logged before this
+    private final Date startedAt = new Date();
+
+    // onLiked runs only when the like was added, not when the user had already liked the document
+    public <T extends Engageable> T like(Class<T> type, String id, Like like, Consumer<T> onLiked) {
+        like.setCreatedAt(new Date());
+        Query query = Query.query(Criteria.where("id").is(id).and("deletedAt").is(null)
+                .and("likes.userId").ne(like.getUserId()));
+        Update update = new Update().push("likes", like).set("updatedAt", new Date());
+        T liked = mongoTemplate.findAndModify(query, update, RETURN_NEW, type);
+        if (liked == null) {
+            return load(type, id);
+        }
+        append(type, liked, EngagementAction.LIKE, like.getUserId(), null);
+        if (onLiked != null) {
+            onLiked.accept(liked);
+        }
+        return liked;
+    }
+
+    public <T extends Engageable> T unlike(Class<T> type, String id, String userId) {
+        Query query = Query.query(Criteria.where("id").is(id).and("deletedAt").is(null).and("likes.userId").is(userId));
+        Update update = new Update().pull("likes", Query.query(Criteria.where("userId").is(userId)))
+                .set("updatedAt", new Date());
+        T unliked = mongoTemplate.findAndModify(query, update, RETURN_NEW, type);
+        if (unliked == null) {
+            return load(type, id);
+        }
+        append(type, unliked, EngagementAction.UNLIKE, userId, null);
+        return unliked;
+    }
+
+    public <T extends Engageable> T comment(Class<T> type, String id, Comment comment, Consumer<T> onCommented) {
+        if (comment.getUserName() == null || comment.getUserName().isEmpty()) {
+            comment.setUserName("Unknown User");
+        }
+        comment.setId(UUID.randomUUID().toString());
+        comment.setCreatedAt(new Date());
+        comment.setUpdatedAt(new Date());
+        Update update = new Update().push("comments", comment).set("updatedAt", new Date());
+        T commented = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(id).and("deletedAt").is(null)), update, RETURN_NEW, type);
+        if (commented == null) {
+            throw notFound(type);
+        }
+        append(type, commented, EngagementAction.COMMENT, comment.getUserId(), comment.getId());
+        if (onCommented != null) {
+            onCommented.accept(commented);
+        }
+        return commented;
+    }
+
+    public <T extends Engageable> T editComment(Class<T> type, String id, String commentId, String content) {
+        Query query = Query.query(Criteria.where("id").is(id).and("deletedAt").is(null).and("comments.id").is(commentId));
+        Update update = new Update()
+                .set("comments.$.content", content)
+                .set("comments.$.updatedAt", new Date())
+                .set("updatedAt", new Date());
+        T edited = mongoTemplate.findAndModify(query, update, RETURN_NEW, type);
+        if (edited == null) {
+            return load(type, id);
+        }
+        String authorId = edited.getComments().stream()
+                .filter(c -> commentId.equals(c.getId()))
+                .map(Comment::getUserId)
+                .findFirst()
+                .orElse(null);
+        append(type, edited, EngagementAction.COMMENT_EDIT, authorId, commentId);
+        return edited;
+    }
+
+    // The comment's author and the document's owner may delete a comment
+    public <T extends Engageable> T deleteComment(Class<T> type, String id, String commentId, String userId) {
+        Query query = Query.query(Criteria.where("id").is(id).orOperator(
+                Criteria.where("userId").is(userId),
+                Criteria.where("comments").elemMatch(Criteria.where("id").is(commentId).and("userId").is(userId)))
+                .and("comments.id").is(commentId).and("deletedAt").is(null));
+        Update update = new Update().pull("comments", Query.query(Criteria.where("id").is(commentId)))
+                .set("updatedAt", new Date());
+        T changed = mongoTemplate.findAndModify(query, update, RETURN_NEW, type);
+        if (changed == null) {
+            return load(type, id);
+        }
+        append(type, changed, EngagementAction.COMMENT_DELETE, userId, commentId);
+        return changed;
+    }
+
+    // Edits and deletes of the document itself, made by its owner
+    public void recordEdit(Class<? extends Engageable> type, String id, String ownerId) {
+        engagementLog.append(event(EngagementTarget.of(type), id, ownerId, EngagementAction.EDIT, ownerId, null));
+    }
+
+    public void recordDelete(Class<? extends Engageable> type, String id, String ownerId) {
+        engagementLog.append(event(EngagementTarget.of(type), id, ownerId, EngagementAction.DELETE, ownerId, null));
+    }
+
+    // Totals of one document, all zero until its first event has been projected
+    public EngagementCounter getCounters(EngagementTarget target, String targetId) {
+        EngagementCounter counter = mongoTemplate.findById(EngagementCounter.idOf(target, targetId),
+                EngagementCounter.class);
+        if (counter == null) {
+            counter = new EngagementCounter(EngagementCounter.idOf(target, targetId), target, targetId, null,
+                    0, 0, 0, 0, null, null);
+        }
+        return counter;
+    }
+
+    // Latest likes and comments on a user's content, newest first
+    public List<EngagementEvent> getRecentEngagement(String ownerId) {
+        EngagementRecent recent = mongoTemplate.findById(ownerId, EngagementRecent.class);
+        if (recent == null || recent.getEvents() == null) {
+            return Collections.emptyList();
+        }
+        List<EngagementEvent> events = new ArrayList<>(recent.getEvents());
+        Collections.reverse(events);
+        return events;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        startupExecutor.execute(this::backfill);
+    }
+
+    // Likes and comments made before the first backfill attempt's cutoff are appended once, so the
+    // projections start from the real totals; anything newer went through the log live. Documents are
+    // read in id order per target, and the position is checkpointed only after the log has written
+    // their events, so a restarted backfill continues after the last document that is fully in.
+    private void backfill() {
+        try {
+            RebuildCheckpoint checkpoint = rebuildCheckpoints.start(BACKFILL, startedAt);
+            if (checkpoint.getCompletedAt() != null) {
+                return;
+            }
+            String position = checkpoint.getPosition();
+            long appended = 0;
+            for (EngagementTarget target : EngagementTarget.values()) {
+                String after = null;
+                if (position != null) {
+                    String[] parts = position.split(":", 2);
+                    if (EngagementTarget.valueOf(parts[0]).ordinal() > target.ordinal()) {
+                        continue;
+                    }
+                    after = parts[0].equals(target.name()) ? parts[1] : null;
+                }
+                Query query = new Query(after == null ? new Criteria() : Criteria.where("id").gt(after))
+                        .with(Sort.by("id"));
+                query.fields().include("userId", "likes", "comments");
+                try (Stream<? extends Engageable> documents = mongoTemplate.stream(query, target.getDocumentClass())) {
+                    Iterator<? extends Engageable> iterator = documents.iterator();
+                    int pending = 0;
+                    String last = null;
+                    while (iterator.hasNext()) {
+                        Engageable document = iterator.next();
+                        appended += backfill(target, document, checkpoint.getCutoff());
+                        last = target.name() + ":" + document.getId();
+                        if (++pending == BACKFILL_CHECKPOINT_EVERY || !iterator.hasNext()) {
+                            engagementLog.awaitWritten();
+                            rebuildCheckpoints.advance(BACKFILL, last);
+                            pending = 0;
+                        }
+                    }
+                }
+            }
+            rebuildCheckpoints.complete(BACKFILL);
+            if (appended > 0) {
+                logger.info("Appended {} existing likes and comments to the engagement log", appended);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not backfill the engagement log: {}", e.getMessage());
+        }
+    }
+
+    // Likes and comments without a timestamp predate the log
+    private long backfill(EngagementTarget target, Engageable document, Date cutoff) {
+        long appended = 0;
+        if (document.getLikes() != null) {
+            for (Like like : document.getLikes()) {
+                if (like.getCreatedAt() != null && !like.getCreatedAt().before(cutoff)) {
+                    continue;
+                }
+                EngagementEvent event = event(target, document.getId(), document.getUserId(), EngagementAction.LIKE,
+                        like.getUserId(), null);
+                event.setCreatedAt(like.getCreatedAt() == null ? event.getCreatedAt() : like.getCreatedAt());
+                engagementLog.append(event);
+                appended++;
+            }
+        }
+        if (document.getComments() != null) {
+            for (Comment comment : document.getComments()) {
+                if (comment.getCreatedAt() != null && !comment.getCreatedAt().before(cutoff)) {
+                    continue;
+                }
+                EngagementEvent event = event(target, document.getId(), document.getUserId(),
+                        EngagementAction.COMMENT, comment.getUserId(), comment.getId());
+                event.setCreatedAt(comment.getCreatedAt() == null ? event.getCreatedAt() : comment.getCreatedAt());
+                engagementLog.append(event);
+                appended++;
+            }
+        }
+        return appended;
+    }
+
+    private void append(Class<? extends Engageable> type, Engageable document, EngagementAction action,
+                        String userId, String commentId) {
+        engagementLog.append(event(EngagementTarget.of(type), document.getId(), document.getUserId(), action, userId,
+                commentId));
+    }
+
+    private static EngagementEvent event(EngagementTarget target, String targetId, String ownerId,
+                                         EngagementAction action, String userId, String commentId) {
+        return new EngagementEvent(null, target, targetId, ownerId, action, userId, commentId, new Date());
+    }
+
+    // Nothing changed: the like, unlike or comment was already in the requested state, or the document is gone
+    private <T extends Engageable> T load(Class<T> type, String id) {
+        T document = mongoTemplate.findById(id, type);
+        if (document == null || document.getDeletedAt() != null) {
+            throw notFound(type);
+        }
+        return document;
+    }
+
+    private static NoSuchElementException notFound(Class<? extends Engageable> type) {
+        return new NoSuchElementException(EngagementTarget.of(type).getLabel() + " not found");
+    }
+}
@@ -6,10 +6,15 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.Backend.dto.CursorPage;
 import com.example.Backend.dto.EventDTO;
 import com.example.Backend.dto.EventResponseDTO;
+import com.example.Backend.dto.PageCursor;
 import com.example.Backend.model.Event;
 import com.example.Backend.repository.EventRepository;
 
@@ -20,37 +25,64 @@ public class EventService {
     @Autowired
     private EventRepository repository;
 
+    @Autowired
+    private NdjsonStreamer ndjsonStreamer;
+
     public EventResponseDTO createEvent(String userId, EventDTO dto) {
+        Event saved = repository.save(newEvent(userId, dto));
+        return toDto(saved);
+    }
+
+    // Also used by the bulk importer so both paths build the same document
+    Event newEvent(String userId, EventDTO dto) {
+        if (userId == null || userId.isEmpty()) {
+            throw new IllegalArgumentException("User ID is required");
+        }
         Event event = new Event();
         BeanUtils.copyProperties(dto, event);
         event.setUserId(userId);
         long now = System.currentTimeMillis();
         event.setCreatedAt(now);
         event.setUpdatedAt(now);
-        Event saved = repository.save(event);
-        return toDto(saved);
+        return event;
     }
 
-    public List<EventResponseDTO> getAllEvents() {
-        return repository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    public CursorPage<EventResponseDTO> getAllEvents(String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Event> events = after == null
+                ? repository.findPage(CursorPage.request(pageSize))
+                : repository.findPageBefore(after.getCreatedAt(), after.getIdValue(), CursorPage.request(pageSize));
+        return CursorPage.of(events, pageSize, ev -> new PageCursor(ev.getCreatedAt(), ev.getId()))
+                .map(this::toDto);
+    }
+
+    public StreamingResponseBody streamAllEvents() {
+        Query query = NdjsonStreamer.newestFirst().addCriteria(Criteria.where("deletedAt").is(null));
+        return ndjsonStreamer.stream(query, Event.class, this::toDto);
     }
 
     public EventResponseDTO getEventById(String id) {
         Event ev = repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
         return toDto(ev);
     }
 
-    public List<EventResponseDTO> getEventsByUser(String userId) {
-        return repository.findByUserId(userId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    public CursorPage<EventResponseDTO> getEventsByUser(String userId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Event> events = after == null
+                ? repository.findPageByUserId(userId, CursorPage.request(pageSize))
+                : repository.findPageByUserIdBefore(userId, after.getCreatedAt(), after.getIdValue(),
+                        CursorPage.request(pageSize));
+        return CursorPage.of(events, pageSize, ev -> new PageCursor(ev.getCreatedAt(), ev.getId()))
+                .map(this::toDto);
     }
 
     public List<EventResponseDTO> searchEvents(String category, String date, String location) {
         return repository.findAll().stream()
+                .filter(ev -> ev.getDeletedAt() == null)
                 .filter(ev -> category == null || ev.getCategory().equalsIgnoreCase(category))
                 .filter(ev -> date == null || ev.getDate().equals(date))
                 .filter(ev -> location == null || ev.getLocation().equalsIgnoreCase(location))
@@ -60,6 +92,7 @@ public class EventService {
 
     public EventResponseDTO updateEvent(String id, String userId, EventDTO dto) {
         Event existing = repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
         if (!existing.getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized");
@@ -77,6 +110,7 @@ public class EventService {
 
     public void deleteEvent(String id, String userId) {
         Event existing = repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
         if (!existing.getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized");
@@ -86,6 +120,7 @@ public class EventService {
 
     public EventResponseDTO registerForEvent(String id, String userId) {
         Event ev = repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
         if (ev.getUserId().equals(userId)) {
             throw new RuntimeException("Cannot register for your own event");
@@ -103,10 +138,7 @@ public class EventService {
     }
 
     public List<EventResponseDTO> getUpcomingEventsForUser(String userId) {
-        LocalDate today = LocalDate.now();
-        return repository.findAll().stream()
-                .filter(ev -> ev.getParticipants().contains(userId))
-                .filter(ev -> LocalDate.parse(ev.getDate()).isAfter(today) || LocalDate.parse(ev.getDate()).isEqual(today))
+        return repository.findUpcomingByParticipant(userId, LocalDate.now().toString()).stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,155 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.dto.PageCursor;
+import com.example.Backend.model.Post;
+import com.example.Backend.model.TimelineEntry;
+import com.example.Backend.model.User;
+
+// Materialized home timelines (fan-out-on-write). Every write here runs on the feed executor,
+// reads go through FollowFeedEngine.
+@Service
+public class FeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedService.class);
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FollowFeedEngine followFeedEngine;
+
+    @Value("${feed.timeline.max-length:800}")
+    private int maxTimelineLength;
+
+    @Value("${feed.fanout.batch-size:1000}")
+    private int fanOutBatchSize;
+
+    @Value("${feed.backfill.size:50}")
+    private int backfillSize;
+
+    // Copy a new post onto the timeline of every follower of its author.
+    // Large accounts are skipped, their posts are merged in when the feed is read.
+    @Async("feedExecutor")
+    public void fanOut(Post post) {
+        if (followFeedEngine.isMergedOnRead(countFollowers(post.getUserId()))) {
+            return;
+        }
+        List<String> followers = getFollowers(post.getUserId());
+        for (int start = 0; start < followers.size(); start += fanOutBatchSize) {
+            List<String> batch = followers.subList(start, Math.min(start + fanOutBatchSize, followers.size()));
+            List<TimelineEntry> entries = new ArrayList<>(batch.size());
+            for (String followerId : batch) {
+                entries.add(new TimelineEntry(null, followerId, post.getId(), post.getUserId(), post.getCreatedAt()));
+            }
+            insertEntries(entries);
+            trimTimelines(batch);
+        }
+    }
+
+    // A new follower gets the author's latest posts right away
+    @Async("feedExecutor")
+    public void backfill(String followerId, String authorId) {
+        if (followFeedEngine.isMergedOnRead(countFollowers(authorId))) {
+            return;
+        }
+        Query latest = Query.query(Criteria.where("userId").is(authorId).and("deletedAt").is(null))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(backfillSize);
+        latest.fields().include("createdAt");
+        List<TimelineEntry> entries = new ArrayList<>();
+        for (Post post : mongoTemplate.find(latest, Post.class)) {
+            entries.add(new TimelineEntry(null, followerId, post.getId(), authorId, post.getCreatedAt()));
+        }
+        insertEntries(entries);
+        trimTimelines(Collections.singletonList(followerId));
+    }
+
+    @Async("feedExecutor")
+    public void removeAuthor(String followerId, String authorId) {
+        mongoTemplate.remove(Query.query(Criteria.where("userId").is(followerId).and("authorId").is(authorId)),
+                TimelineEntry.class);
+    }
+
+    // Computed server side like FollowFeedEngine does, the list itself is only loaded to be fanned out
+    private int countFollowers(String userId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is(ObjectId.isValid(userId) ? new ObjectId(userId) : userId)),
+                Aggregation.project().and(ArrayOperators.Size.lengthOfArray(
+                        ConditionalOperators.ifNull("followedUsers").then(Collections.emptyList())))
+                        .as("followerCount"));
+        Document result = mongoTemplate.aggregate(aggregation, User.class, Document.class).getUniqueMappedResult();
+        return result == null ? 0 : result.getInteger("followerCount", 0);
+    }
+
+    private List<String> getFollowers(String userId) {
+        Query query = Query.query(Criteria.where("id").is(userId));
+        query.fields().include("followedUsers");
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null || user.getFollowedUsers() == null) {
+            return Collections.emptyList();
+        }
+        return user.getFollowedUsers();
+    }
+
+    private void insertEntries(List<TimelineEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TimelineEntry.class).insert(entries).execute();
+        } catch (BulkOperationException e) {
+            // A retried fan-out or a backfill overlapping a fan-out hits the unique (userId, postId) index
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                logger.warn("Timeline insert failed for {} of {} entries", e.getErrors().size(), entries.size());
+            }
+        }
+    }
+
+    // Keep only the newest maxTimelineLength entries of each timeline
+    private void trimTimelines(List<String> userIds) {
+        BulkOperations removals = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TimelineEntry.class);
+        boolean pending = false;
+        for (String userId : userIds) {
+            Query lastKept = Query.query(Criteria.where("userId").is(userId))
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt", "postId"))
+                    .skip(maxTimelineLength - 1)
+                    .limit(1);
+            lastKept.fields().include("createdAt", "postId");
+            TimelineEntry cutoff = mongoTemplate.findOne(lastKept, TimelineEntry.class);
+            if (cutoff == null) {
+                continue;
+            }
+            removals.remove(Query.query(Criteria.where("userId").is(userId))
+                    .addCriteria(PageCursor.of(cutoff.getCreatedAt(), cutoff.getPostId())
+                            .toCriteria("postId", cutoff.getPostId())));
+            pending = true;
+        }
+        if (pending) {
+            removals.execute();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PageCursor;
+import com.example.Backend.model.Post;
+import com.example.Backend.model.TimelineEntry;
+import com.example.Backend.model.User;
+
+// Read side of the home feed. Authors with more followers than the threshold are not fanned out
+// on write, their posts are merged in at read time with the viewer's materialized timeline.
+@Service
+public class FollowFeedEngine {
+
+    // Newest first, ties broken by post id like every other keyset page
+    private static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparing(TimelineEntry::getCreatedAt, Comparator.nullsFirst(Comparator.<Date>naturalOrder()))
+            .thenComparing(TimelineEntry::getPostId)
+            .reversed();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${feed.fanout.follower-threshold:10000}")
+    private int followerThreshold;
+
+    public boolean isMergedOnRead(int followerCount) {
+        return followerCount > followerThreshold;
+    }
+
+    public CursorPage<TimelineEntry> readPage(String viewerId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        try (MergedFeed feed = open(viewerId, after, pageSize + 1)) {
+            List<TimelineEntry> fetched = new ArrayList<>(pageSize + 1);
+            while (fetched.size() <= pageSize && feed.hasNext()) {
+                fetched.add(feed.next());
+            }
+            return CursorPage.of(fetched, pageSize, e -> PageCursor.of(e.getCreatedAt(), e.getPostId()));
+        }
+    }
+
+    // One indexed cursor for the timeline and one per large author, each already ordered,
+    // so no source ever returns more than perSourceLimit documents
+    public MergedFeed open(String viewerId, PageCursor after, int perSourceLimit) {
+        List<Stream<TimelineEntry>> sources = new ArrayList<>();
+        try {
+            Query timeline = Query.query(Criteria.where("userId").is(viewerId));
+            if (after != null) {
+                timeline.addCriteria(after.toCriteria("postId", after.getId()));
+            }
+            timeline.with(Sort.by(Sort.Direction.DESC, "createdAt", "postId"))
+                    .limit(perSourceLimit)
+                    .cursorBatchSize(perSourceLimit);
+            sources.add(mongoTemplate.stream(timeline, TimelineEntry.class));
+
+            for (String authorId : findLargeAuthors(getFollowing(viewerId))) {
+                Query posts = Query.query(Criteria.where("userId").is(authorId).and("deletedAt").is(null));
+                if (after != null) {
+                    posts.addCriteria(after.toCriteria());
+                }
+                posts.with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                        .limit(perSourceLimit)
+                        .cursorBatchSize(perSourceLimit);
+                posts.fields().include("userId", "createdAt");
+                sources.add(mongoTemplate.stream(posts, Post.class)
+                        .map(p -> new TimelineEntry(null, viewerId, p.getId(), p.getUserId(), p.getCreatedAt())));
+            }
+        } catch (RuntimeException e) {
+            sources.forEach(Stream::close);
+            throw e;
+        }
+        return new MergedFeed(sources);
+    }
+
+    private List<String> getFollowing(String userId) {
+        Query query = Query.query(Criteria.where("id").is(userId));
+        query.fields().include("followingUsers");
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null || user.getFollowingUsers() == null) {
+            return Collections.emptyList();
+        }
+        return user.getFollowingUsers();
+    }
+
+    // Follower counts are computed server side so the follower lists never leave the database
+    private List<String> findLargeAuthors(List<String> authorIds) {
+        if (authorIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> ids = authorIds.stream()
+                .map(id -> ObjectId.isValid(id) ? new ObjectId(id) : id)
+                .collect(Collectors.toList());
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").in(ids)),
+                Aggregation.project().and(ArrayOperators.Size.lengthOfArray(
+                        ConditionalOperators.ifNull("followedUsers").then(Collections.emptyList())))
+                        .as("followerCount"),
+                Aggregation.match(Criteria.where("followerCount").gt(followerThreshold)));
+        return mongoTemplate.aggregate(aggregation, User.class, Document.class).getMappedResults().stream()
+                .map(doc -> doc.get("_id").toString())
+                .collect(Collectors.toList());
+    }
+
+    // Heap based k-way merge. Only the current head of each source is held in memory and
+    // a post reachable from two sources (e.g. an author that crossed the threshold) is emitted once.
+    public static class MergedFeed implements Iterator<TimelineEntry>, AutoCloseable {
+        private final List<Stream<TimelineEntry>> sources;
+        private final PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> NEWEST_FIRST.compare(a.entry, b.entry));
+        private TimelineEntry last;
+
+        MergedFeed(List<Stream<TimelineEntry>> sources) {
+            this.sources = sources;
+            for (Stream<TimelineEntry> source : sources) {
+                Iterator<TimelineEntry> iterator = source.iterator();
+                if (iterator.hasNext()) {
+                    heads.add(new Head(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!heads.isEmpty() && last != null && isSamePost(heads.peek().entry, last)) {
+                advance(heads.poll());
+            }
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public TimelineEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Head head = heads.poll();
+            last = head.entry;
+            advance(head);
+            return last;
+        }
+
+        @Override
+        public void close() {
+            sources.forEach(Stream::close);
+        }
+
+        private void advance(Head head) {
+            if (head.rest.hasNext()) {
+                heads.add(new Head(head.rest.next(), head.rest));
+            }
+        }
+
+        private static boolean isSamePost(TimelineEntry a, TimelineEntry b) {
+            return a.getPostId().equals(b.getPostId());
+        }
+    }
+
+    private static class Head {
+        private final TimelineEntry entry;
+        private final Iterator<TimelineEntry> rest;
+
+        Head(TimelineEntry entry, Iterator<TimelineEntry> rest) {
+            this.entry = entry;
+            this.rest = rest;
+        }
+    }
+}
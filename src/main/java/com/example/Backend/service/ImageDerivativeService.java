@@ -0,0 +1,277 @@
+package com.example.Backend.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.dto.MediaUploadDTO;
+import com.example.Backend.model.MediaVariant;
+import com.example.Backend.model.Post;
+
+import jakarta.annotation.PreDestroy;
+
+// Produces thumbnail and medium JPEG copies of uploaded images on a small, bounded worker pool.
+// When the queue is full new work is rejected instead of queued, so an upload burst turns into
+// 503s for the uploader rather than CPU starvation for everyone else.
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    public static final int THUMBNAIL_WIDTH = 320;
+    public static final int MEDIUM_WIDTH = 1080;
+    private static final float JPEG_QUALITY = 0.82f;
+    // Refuse to decode images that would need more than ~200MB of heap
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PostCache postCache;
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalProcessingMillis = new AtomicLong();
+
+    public ImageDerivativeService(@Value("${media.image.workers:2}") int workers,
+                                  @Value("${media.image.queue-capacity:100}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Request threads win when the CPU is contended
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean isImage(MediaUploadDTO media) {
+        String type = media.getContentType();
+        return type != null && type.startsWith("image/") && !type.equals("image/gif");
+    }
+
+    // Throws RejectedExecutionException when the queue is full
+    public void submit(MediaUploadDTO media) {
+        if (!isImage(media) || variantFor(media.getUrl()) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> process(media.getName()));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    // Variants already generated for the given media urls, checked on the file system only
+    public List<MediaVariant> getAvailableVariants(List<String> mediaUrls) {
+        if (mediaUrls == null || mediaUrls.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<MediaVariant> variants = new ArrayList<>();
+        for (String url : mediaUrls) {
+            MediaVariant variant = variantFor(url);
+            if (variant != null) {
+                variants.add(variant);
+            }
+        }
+        return variants;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", executor.getMaximumPoolSize());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        long done = completed.get();
+        stats.put("averageProcessingMillis", done == 0 ? 0 : totalProcessingMillis.get() / done);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void process(String name) {
+        long started = System.currentTimeMillis();
+        try {
+            BufferedImage original = read(mediaStorageService.resolve(name));
+            if (original == null) {
+                return;
+            }
+            String hash = name.substring(0, name.indexOf('.'));
+            // The thumbnail is written last, its presence means the variant is complete
+            write(scaleToWidth(original, MEDIUM_WIDTH), mediaStorageService.pathFor(derivativeName(hash, MEDIUM_WIDTH)));
+            write(scaleToWidth(original, THUMBNAIL_WIDTH), mediaStorageService.pathFor(derivativeName(hash, THUMBNAIL_WIDTH)));
+            attachToPosts(variantFor(MediaStorageService.URL_PREFIX + name));
+            completed.incrementAndGet();
+            totalProcessingMillis.addAndGet(System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.warn("Could not create derivatives for {}: {}", name, e.getMessage());
+        }
+    }
+
+    // Posts created before the derivatives existed, found through the mediaUrls index; posts created
+    // later pick them up in createPost
+    private void attachToPosts(MediaVariant variant) {
+        Query usingMedia = Query.query(Criteria.where("mediaUrls").is(variant.getOriginalUrl()));
+        usingMedia.fields().include("id");
+        for (Post post : mongoTemplate.find(usingMedia, Post.class)) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(post.getId())),
+                    new Update().addToSet("mediaVariants", variant).set("updatedAt", new Date()), Post.class);
+            postCache.invalidate(post.getId());
+        }
+    }
+
+    private MediaVariant variantFor(String url) {
+        if (url == null || !url.startsWith(MediaStorageService.URL_PREFIX)) {
+            return null;
+        }
+        String name = url.substring(MediaStorageService.URL_PREFIX.length());
+        int dot = name.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String hash = name.substring(0, dot);
+        String thumbnail = derivativeName(hash, THUMBNAIL_WIDTH);
+        if (!mediaStorageService.exists(thumbnail)) {
+            return null;
+        }
+        return new MediaVariant(url, MediaStorageService.URL_PREFIX + thumbnail,
+                MediaStorageService.URL_PREFIX + derivativeName(hash, MEDIUM_WIDTH));
+    }
+
+    private static String derivativeName(String hash, int width) {
+        return hash + "-" + width + ".jpg";
+    }
+
+    // Reads the header first so oversized images are refused before decoding
+    private static BufferedImage read(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new IOException("Image too large");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the image until close to the target before the final step, which keeps the
+    // quality of bilinear scaling without the cost of area averaging. Never upscales.
+    private static BufferedImage scaleToWidth(BufferedImage source, int targetWidth) {
+        BufferedImage current = toRgb(source);
+        int width = current.getWidth();
+        int height = current.getHeight();
+        if (width <= targetWidth) {
+            return current;
+        }
+        while (true) {
+            int nextWidth = Math.max(targetWidth, width / 2);
+            int nextHeight = Math.max(1, (int) Math.round((double) height * nextWidth / width));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            graphics.dispose();
+            current = next;
+            width = nextWidth;
+            height = nextHeight;
+            if (width == targetWidth) {
+                return current;
+            }
+        }
+    }
+
+    // JPEG has no alpha channel, flatten onto white
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, source.getWidth(), source.getHeight());
+        graphics.drawImage(source, 0, 0, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    private static void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "derivative-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
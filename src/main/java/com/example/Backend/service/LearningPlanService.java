@@ -1,15 +1,31 @@
 package com.example.Backend.service;
 
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PageCursor;
+import com.example.Backend.dto.PatchResultDTO;
+import com.example.Backend.dto.PlanLineageDTO;
+import com.example.Backend.dto.SimilarPlanDTO;
+import com.example.Backend.dto.TopicProgressDTO;
 import com.example.Backend.model.Comment;
 import com.example.Backend.model.LearningPlan;
 import com.example.Backend.model.Like;
+import com.example.Backend.model.PlanCompletion;
+import com.example.Backend.model.PlanRevision;
+import com.example.Backend.model.PlanTopic;
 import com.example.Backend.repository.LearningPlanRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class LearningPlanService {
@@ -17,6 +33,27 @@ public class LearningPlanService {
     @Autowired
     private LearningPlanRepository learningPlanRepository;
 
+    @Autowired
+    private NdjsonStreamer ndjsonStreamer;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PlanSimilarityIndex planSimilarityIndex;
+
+    @Autowired
+    private PlanRevisionStore planRevisionStore;
+
+    @Autowired
+    private UserActivityService userActivityService;
+
+    @Autowired
+    private EngagementService engagementService;
+
+    @Value("${plans.similar.min-similarity:0.15}")
+    private double minSimilarity;
+
     // Create a new learning plan
     public LearningPlan createLearningPlan(LearningPlan plan) {
         if (plan.getUserId() == null || plan.getUserId().isEmpty()) {
@@ -29,104 +66,366 @@ public class LearningPlanService {
         plan.setUpdatedAt(new Date());
         plan.setLikes(new ArrayList<>());
         plan.setComments(new ArrayList<>());
-        return learningPlanRepository.save(plan);
+        plan.setTopics(normalizeTopics(plan.getTopics(), Collections.emptyList()));
+        plan.setTopicCount(plan.getTopics().size());
+        plan.setRevision(0);
+        plan.setForkOf(null);
+        plan.setForkRevision(0);
+        plan.setLineage(null);
+        plan.setForkCount(0);
+        LearningPlan saved = learningPlanRepository.save(plan);
+        planSimilarityIndex.index(saved.getId(), saved.getTitle(), saved.getTopics(), saved.getResources());
+        userActivityService.record(saved.getUserId(), saved.getCreatedAt());
+        return saved;
+    }
+
+    // Fork a plan for another user. The fork stores only the fields given in overrides and points at
+    // the source's current revision; the source's count is bumped first, which is also what makes
+    // later edits of the source keep a snapshot for this fork.
+    public LearningPlan forkLearningPlan(String sourceId, LearningPlan overrides) {
+        if (overrides.getUserId() == null || overrides.getUserId().isEmpty()) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+        Query query = Query.query(Criteria.where("id").is(sourceId).and("deletedAt").is(null));
+        query.fields().include("revision", "lineage");
+        LearningPlan source = mongoTemplate.findAndModify(query, new Update().inc("forkCount", 1),
+                FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+        if (source == null) {
+            throw new NoSuchElementException("Learning plan not found");
+        }
+        List<String> lineage = source.getLineage() == null ? new ArrayList<>() : new ArrayList<>(source.getLineage());
+        lineage.add(sourceId);
+
+        LearningPlan fork = new LearningPlan();
+        fork.setUserId(overrides.getUserId());
+        fork.setUserName(overrides.getUserName() == null || overrides.getUserName().isEmpty()
+                ? "Unknown User" : overrides.getUserName());
+        fork.setTitle(overrides.getTitle());
+        fork.setDescription(overrides.getDescription());
+        fork.setResources(overrides.getResources());
+        fork.setForkOf(sourceId);
+        fork.setForkRevision(source.getRevision());
+        fork.setLineage(lineage);
+        setForkTopics(fork, overrides.getTopics() == null ? null
+                : normalizeTopics(overrides.getTopics(), Collections.emptyList()));
+        fork.setCreatedAt(new Date());
+        fork.setUpdatedAt(new Date());
+        fork.setLikes(new ArrayList<>());
+        fork.setComments(new ArrayList<>());
+        LearningPlan saved = planRevisionStore.materialize(learningPlanRepository.save(fork));
+        planSimilarityIndex.index(saved.getId(), saved.getTitle(), saved.getTopics(), saved.getResources());
+        return saved;
+    }
+
+    // Direct forks of a plan, newest first
+    public CursorPage<LearningPlan> getForks(String id, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        Criteria criteria = Criteria.where("forkOf").is(id).and("deletedAt").is(null);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, after.toCriteria());
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(pageSize + 1);
+        List<LearningPlan> forks = mongoTemplate.find(query, LearningPlan.class);
+        return CursorPage.of(forks, pageSize, p -> PageCursor.of(p.getCreatedAt(), p.getId()))
+                .map(planRevisionStore::materialize);
+    }
+
+    // Ancestors come from the plan itself, descendants from the multikey lineage index
+    public PlanLineageDTO getLineage(String id) {
+        Query query = Query.query(Criteria.where("id").is(id).and("deletedAt").is(null));
+        query.fields().include("lineage", "forkCount");
+        LearningPlan plan = mongoTemplate.findOne(query, LearningPlan.class);
+        if (plan == null) {
+            throw new NoSuchElementException("Learning plan not found");
+        }
+        long descendants = mongoTemplate.count(Query.query(Criteria.where("lineage").is(id).and("deletedAt").is(null)),
+                LearningPlan.class);
+        List<String> ancestors = plan.getLineage() == null ? Collections.emptyList() : plan.getLineage();
+        return new PlanLineageDTO(id, ancestors, plan.getForkCount(), descendants);
     }
 
     // Get all learning plans
-    public List<LearningPlan> getAllLearningPlans() {
-        return learningPlanRepository.findAllByOrderByCreatedAtDesc();
+    public CursorPage<LearningPlan> getAllLearningPlans(String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<LearningPlan> plans = after == null
+                ? learningPlanRepository.findPage(CursorPage.request(pageSize))
+                : learningPlanRepository.findPageBefore(after.getCreatedAtDate(), after.getIdValue(),
+                        CursorPage.request(pageSize));
+        return CursorPage.of(plans, pageSize, p -> PageCursor.of(p.getCreatedAt(), p.getId()))
+                .map(planRevisionStore::materialize);
+    }
+
+    // Get all learning plans, streamed as NDJSON
+    public StreamingResponseBody streamAllLearningPlans() {
+        Query query = NdjsonStreamer.newestFirst().addCriteria(Criteria.where("deletedAt").is(null));
+        return ndjsonStreamer.stream(query, LearningPlan.class, planRevisionStore::materialize);
     }
 
     // Get a learning plan by ID
     public LearningPlan getLearningPlanById(String id) {
+        return planRevisionStore.materialize(findPlan(id));
+    }
+
+    // The stored document, forks keep null for inherited fields. Use this for anything that is saved back.
+    private LearningPlan findPlan(String id) {
         return learningPlanRepository.findById(id)
+                .filter(plan -> plan.getDeletedAt() == null)
                 .orElseThrow(() -> new NoSuchElementException("Learning plan not found"));
     }
 
     // Get plans by user ID
-    public List<LearningPlan> getLearningPlansByUserId(String userId) {
-        return learningPlanRepository.findByUserId(userId);
+    public CursorPage<LearningPlan> getLearningPlansByUserId(String userId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<LearningPlan> plans = after == null
+                ? learningPlanRepository.findPageByUserId(userId, CursorPage.request(pageSize))
+                : learningPlanRepository.findPageByUserIdBefore(userId, after.getCreatedAtDate(), after.getIdValue(),
+                        CursorPage.request(pageSize));
+        return CursorPage.of(plans, pageSize, p -> PageCursor.of(p.getCreatedAt(), p.getId()))
+                .map(planRevisionStore::materialize);
     }
 
-    // Update learning plan
+    // Update learning plan. On a fork, fields left null go back to being read from the source.
     public LearningPlan updateLearningPlan(String id, LearningPlan planDetails) {
-        LearningPlan plan = getLearningPlanById(id);
+        LearningPlan plan = findPlan(id);
         plan.setTitle(planDetails.getTitle());
         plan.setDescription(planDetails.getDescription());
-        plan.setTopics(planDetails.getTopics());
         plan.setResources(planDetails.getResources());
-        plan.setUpdatedAt(new Date());
-        return learningPlanRepository.save(plan);
+        if (plan.getForkOf() != null && planDetails.getTopics() == null) {
+            setForkTopics(plan, null);
+        } else {
+            plan.setTopics(normalizeTopics(planDetails.getTopics(), plan.getTopics()));
+            plan.setTopicCount(plan.getTopics().size());
+        }
+        Update update = new Update()
+                .set("title", plan.getTitle())
+                .set("description", plan.getDescription())
+                .set("topics", plan.getTopics())
+                .set("topicCount", plan.getTopicCount())
+                .set("resources", plan.getResources())
+                .set("updatedAt", new Date());
+        LearningPlan saved = planRevisionStore.materialize(applyContentChange(id, update));
+        planSimilarityIndex.index(saved.getId(), saved.getTitle(), saved.getTopics(), saved.getResources());
+        engagementService.recordEdit(LearningPlan.class, id, saved.getUserId());
+        return saved;
     }
 
-    // Delete learning plan
-    public void deleteLearningPlan(String id) {
+    // Fork topics are either the fork's own list or inherited; inherited topics keep the source's count
+    private void setForkTopics(LearningPlan fork, List<PlanTopic> topics) {
+        fork.setTopics(topics);
+        if (topics != null) {
+            fork.setTopicCount(topics.size());
+        } else {
+            PlanRevision source = sourceContent(fork);
+            fork.setTopicCount(source.getTopics() == null ? 0 : source.getTopics().size());
+        }
+    }
+
+    private PlanRevision sourceContent(LearningPlan fork) {
+        PlanRevision source = planRevisionStore.content(fork.getForkOf(), fork.getForkRevision());
+        if (source == null) {
+            throw new NoSuchElementException("Source learning plan not found");
+        }
+        return source;
+    }
+
+    // Every content change bumps the revision. Plans nobody forked are changed in one step; a plan with
+    // forks first keeps its current content as a snapshot, then changes only if it is still at that revision.
+    private LearningPlan applyContentChange(String id, Update update, String... returnFields) {
+        update.inc("revision", 1);
+        FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+        Query unforked = Query.query(Criteria.where("id").is(id).and("deletedAt").is(null).and("forkCount").in(0, null));
+        unforked.fields().include(returnFields);
+        LearningPlan changed = mongoTemplate.findAndModify(unforked, update, returnNew, LearningPlan.class);
+        for (int attempt = 0; changed == null && attempt < 3; attempt++) {
+            LearningPlan current = mongoTemplate.findById(id, LearningPlan.class);
+            if (current == null || current.getDeletedAt() != null) {
+                throw new NoSuchElementException("Learning plan not found");
+            }
+            planRevisionStore.snapshot(current);
+            Criteria atRevision = Criteria.where("id").is(id).and("deletedAt").is(null).and("revision");
+            Query pinned = Query.query(current.getRevision() == 0 ? atRevision.in(0, null)
+                    : atRevision.is(current.getRevision()));
+            pinned.fields().include(returnFields);
+            changed = mongoTemplate.findAndModify(pinned, update, returnNew, LearningPlan.class);
+        }
+        if (changed == null) {
+            throw new IllegalStateException("Learning plan is being changed concurrently, try again");
+        }
+        return changed;
+    }
+
+    // Plans with overlapping topics and resources, candidates come from the LSH buckets only.
+    // Plans deleted without going through this service (account cascades) are skipped here.
+    public List<SimilarPlanDTO> getSimilarPlans(String id, Integer limit) {
         LearningPlan plan = getLearningPlanById(id);
+        Map<String, Double> matches = planSimilarityIndex.findSimilar(id, plan.getTitle(), plan.getTopics(),
+                plan.getResources(), PageCursor.clampLimit(limit), minSimilarity);
+        Map<String, LearningPlan> plansById = new HashMap<>();
+        learningPlanRepository.findAllById(matches.keySet()).forEach(p -> plansById.put(p.getId(), p));
+        List<SimilarPlanDTO> similar = new ArrayList<>();
+        matches.forEach((planId, similarity) -> {
+            LearningPlan match = plansById.get(planId);
+            if (match != null && match.getDeletedAt() == null) {
+                planRevisionStore.materialize(match);
+                similar.add(new SimilarPlanDTO(match.getId(), match.getUserId(), match.getUserName(), match.getTitle(),
+                        match.getDescription(), match.getTopicCount(), similarity));
+            }
+        });
+        return similar;
+    }
+
+    // Fields a PATCH may change; topics go through updateLearningPlan or the completion endpoint
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("title", "description", "resources");
+
+    // Change only the given fields with one $set, likes and comments written meanwhile are kept
+    public PatchResultDTO patchLearningPlan(String id, Map<String, Object> fields) {
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        Update update = new Update();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (!PATCHABLE_FIELDS.contains(field.getKey())) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field.getKey());
+            }
+            if (field.getValue() != null && !(field.getValue() instanceof String)) {
+                throw new IllegalArgumentException("Field must be a string: " + field.getKey());
+            }
+            update.set(field.getKey(), field.getValue());
+        }
+        update.set("updatedAt", new Date());
+        LearningPlan patched = applyContentChange(id, update,
+                "userId", "updatedAt", "title", "topics", "resources", "forkOf", "forkRevision");
+        if (fields.containsKey("title") || fields.containsKey("resources")) {
+            planRevisionStore.materialize(patched);
+            planSimilarityIndex.index(id, patched.getTitle(), patched.getTopics(), patched.getResources());
+        }
+        engagementService.recordEdit(LearningPlan.class, id, patched.getUserId());
+        return new PatchResultDTO(id, patched.getUpdatedAt());
+    }
+
+    // Tick a single topic on or off for one user. Completion lives in the user's own PlanCompletion,
+    // so the plan is only read: $addToSet and $pull make repeated calls harmless, and forks that
+    // inherit their topics are ticked against the inherited topic ids without copying them.
+    public TopicProgressDTO setTopicCompleted(String planId, String topicId, String userId, boolean completed) {
+        requireUserId(userId);
+        LearningPlan plan = findTopics(planId);
+        if (plan.getTopics().stream().noneMatch(topic -> topic.getId().equals(topicId))) {
+            throw new NoSuchElementException("Learning plan topic not found");
+        }
+        Query query = Query.query(Criteria.where("id").is(PlanCompletion.idOf(planId, userId)));
+        Update update = completed ? new Update().addToSet("topicIds", topicId) : new Update().pull("topicIds", topicId);
+        update.setOnInsert("planId", planId).setOnInsert("userId", userId).set("updatedAt", new Date());
+        PlanCompletion completion = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true).upsert(completed), PlanCompletion.class);
+        return toProgress(plan, completion, topicId, userId, completed);
+    }
+
+    // Percent complete for one user, ticks on topics that were removed since no longer count
+    public TopicProgressDTO getProgress(String planId, String userId) {
+        requireUserId(userId);
+        LearningPlan plan = findTopics(planId);
+        PlanCompletion completion = mongoTemplate.findById(PlanCompletion.idOf(planId, userId), PlanCompletion.class);
+        return toProgress(plan, completion, null, userId, null);
+    }
+
+    // Only the topic list, a fork that inherits it reads it from its source
+    private LearningPlan findTopics(String planId) {
+        Query query = Query.query(Criteria.where("id").is(planId).and("deletedAt").is(null));
+        query.fields().include("topics", "forkOf", "forkRevision");
+        LearningPlan plan = mongoTemplate.findOne(query, LearningPlan.class);
+        if (plan == null) {
+            throw new NoSuchElementException("Learning plan not found");
+        }
+        planRevisionStore.materialize(plan);
+        if (plan.getTopics() == null) {
+            plan.setTopics(Collections.emptyList());
+        }
+        return plan;
+    }
+
+    // Gives new topics an id and keeps the id of topics the client sent back, so ticks on them stay
+    private List<PlanTopic> normalizeTopics(List<PlanTopic> topics, List<PlanTopic> previous) {
+        Map<String, PlanTopic> previousById = new HashMap<>();
+        if (previous != null) {
+            previous.forEach(t -> previousById.put(t.getId(), t));
+        }
+        List<PlanTopic> normalized = new ArrayList<>();
+        if (topics == null) {
+            return normalized;
+        }
+        for (PlanTopic topic : topics) {
+            if (topic.getTitle() == null || topic.getTitle().isBlank()) {
+                throw new IllegalArgumentException("Topic title is required");
+            }
+            PlanTopic known = topic.getId() == null ? null : previousById.get(topic.getId());
+            String id = known == null ? UUID.randomUUID().toString() : known.getId();
+            normalized.add(new PlanTopic(id, topic.getTitle(), topic.getResources()));
+        }
+        return normalized;
+    }
+
+    private static void requireUserId(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+    }
+
+    private TopicProgressDTO toProgress(LearningPlan plan, PlanCompletion completion, String topicId, String userId,
+            Boolean completed) {
+        Set<String> ticked = completion == null ? Collections.emptySet() : new HashSet<>(completion.getTopicIds());
+        int completedTopics = (int) plan.getTopics().stream().filter(topic -> ticked.contains(topic.getId())).count();
+        int totalTopics = plan.getTopics().size();
+        int percent = totalTopics == 0 ? 0 : completedTopics * 100 / totalTopics;
+        return new TopicProgressDTO(plan.getId(), userId, topicId, completed, completedTopics, totalTopics, percent);
+    }
+
+    // Delete learning plan. Forks of it keep reading the last revision from a snapshot. The source's
+    // fork count goes down only after the delete, a count that is briefly too high just costs a snapshot.
+    public void deleteLearningPlan(String id) {
+        LearningPlan plan = findPlan(id);
+        if (plan.getForkCount() > 0) {
+            planRevisionStore.snapshot(plan);
+        }
         learningPlanRepository.delete(plan);
+        mongoTemplate.remove(Query.query(Criteria.where("planId").is(id)), PlanCompletion.class);
+        planSimilarityIndex.remove(id);
+        userActivityService.unrecord(plan.getUserId(), plan.getCreatedAt());
+        engagementService.recordDelete(LearningPlan.class, id, plan.getUserId());
+        if (plan.getForkOf() != null) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(plan.getForkOf())),
+                    new Update().inc("forkCount", -1), LearningPlan.class);
+        }
     }
 
     // Add comment
     public LearningPlan addComment(String planId, Comment comment) {
-        LearningPlan plan = getLearningPlanById(planId);
-        if (plan.getComments() == null) {
-            plan.setComments(new ArrayList<>());
-        }
-        if (comment.getUserName() == null || comment.getUserName().isEmpty()) {
-            comment.setUserName("Unknown User");
-        }
-        comment.setId(UUID.randomUUID().toString());
-        comment.setCreatedAt(new Date());
-        comment.setUpdatedAt(new Date());
-        plan.getComments().add(comment);
-        return learningPlanRepository.save(plan);
+        return planRevisionStore.materialize(engagementService.comment(LearningPlan.class, planId, comment, null));
     }
 
     // Update comment
     public LearningPlan updateComment(String planId, String commentId, Comment commentDetails) {
-        LearningPlan plan = getLearningPlanById(planId);
-        plan.getComments().stream()
-                .filter(c -> c.getId().equals(commentId))
-                .findFirst()
-                .ifPresent(c -> {
-                    c.setContent(commentDetails.getContent());
-                    c.setUpdatedAt(new Date());
-                });
-        return learningPlanRepository.save(plan);
+        return planRevisionStore.materialize(engagementService.editComment(LearningPlan.class, planId, commentId,
+                commentDetails.getContent()));
     }
 
     // Delete comment
     public LearningPlan deleteComment(String planId, String commentId, String userId) {
-        LearningPlan plan = getLearningPlanById(planId);
-        boolean isOwner = plan.getUserId().equals(userId);
-        plan.setComments(plan.getComments().stream()
-                .filter(c -> !(c.getId().equals(commentId) && (c.getUserId().equals(userId) || isOwner)))
-                .collect(Collectors.toList()));
-        return learningPlanRepository.save(plan);
+        return planRevisionStore.materialize(engagementService.deleteComment(LearningPlan.class, planId, commentId,
+                userId));
     }
 
     // Add like
     public LearningPlan addLike(String planId, Like like) {
-        LearningPlan plan = getLearningPlanById(planId);
-        if (plan.getLikes() == null) {
-            plan.setLikes(new ArrayList<>());
-        }
-        boolean alreadyLiked = plan.getLikes().stream()
-                .anyMatch(l -> l.getUserId().equals(like.getUserId()));
-
-        if (!alreadyLiked) {
-            like.setCreatedAt(new Date());
-            plan.getLikes().add(like);
-            return learningPlanRepository.save(plan);
-        }
-        return plan;
+        return planRevisionStore.materialize(engagementService.like(LearningPlan.class, planId, like, null));
     }
 
     // Remove like
     public LearningPlan removeLike(String planId, String userId) {
-        LearningPlan plan = getLearningPlanById(planId);
-        plan.setLikes(plan.getLikes().stream()
-                .filter(like -> !like.getUserId().equals(userId))
-                .collect(Collectors.toList()));
-        return learningPlanRepository.save(plan);
+        return planRevisionStore.materialize(engagementService.unlike(LearningPlan.class, planId, userId));
     }
 }
@@ -1,15 +1,23 @@
 package com.example.Backend.service;
 
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PageCursor;
+import com.example.Backend.dto.PatchResultDTO;
 import com.example.Backend.model.Comment;
 import com.example.Backend.model.LearningProgress;
 import com.example.Backend.model.Like;
 import com.example.Backend.repository.LearningProgressRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class LearningProgressService {
@@ -17,10 +25,33 @@ public class LearningProgressService {
 
     private final LearningProgressRepository learningProgressRepository;
     private final NotificationService notificationService;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final MongoTemplate mongoTemplate;
+    private final UserActivityService userActivityService;
+    private final SkillIndexService skillIndexService;
+    private final EngagementService engagementService;
 
-    public LearningProgressService(LearningProgressRepository learningProgressRepository, NotificationService notificationService) {
+    //fields each template needs, in the order they are named in the error message
+    private static final Map<String, List<String>> TEMPLATE_REQUIRED_FIELDS = Map.of(
+            "general", List.of("title", "description"),
+            "tutorial", List.of("title", "tutorialName"),
+            "project", List.of("title", "projectName"));
+
+    //fields a PATCH may change, likes and comments have their own endpoints
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("title", "description", "templateType", "status",
+            "tutorialName", "projectName", "skillsLearned", "challenges", "nextSteps");
+
+    public LearningProgressService(LearningProgressRepository learningProgressRepository, NotificationService notificationService,
+                                   NdjsonStreamer ndjsonStreamer, MongoTemplate mongoTemplate,
+                                   UserActivityService userActivityService, SkillIndexService skillIndexService,
+                                   EngagementService engagementService) {
         this.learningProgressRepository = learningProgressRepository;
         this.notificationService = notificationService;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.mongoTemplate = mongoTemplate;
+        this.userActivityService = userActivityService;
+        this.skillIndexService = skillIndexService;
+        this.engagementService = engagementService;
     }
 
     //create a new learning progress entry
@@ -36,55 +67,70 @@ public class LearningProgressService {
         }
 
         //validate required fields based on template type
-        switch (progress.getTemplateType()) {
-            case "general":
-                if (progress.getTitle() == null || progress.getTitle().isEmpty() ||
-                        progress.getDescription() == null || progress.getDescription().isEmpty()) {
-                    throw new IllegalArgumentException("Title and description are required for general template");
-                }
-                break;
-            case "tutorial":
-                if (progress.getTitle() == null || progress.getTitle().isEmpty() ||
-                        progress.getTutorialName() == null || progress.getTutorialName().isEmpty()) {
-                    throw new IllegalArgumentException("Title and tutorial name are required for tutorial template");
-                }
-                break;
-            case "project":
-                if (progress.getTitle() == null || progress.getTitle().isEmpty() ||
-                        progress.getProjectName() == null || progress.getProjectName().isEmpty()) {
-                    throw new IllegalArgumentException("Title and project name are required for project template");
-                }
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid template type");
+        List<String> required = TEMPLATE_REQUIRED_FIELDS.get(progress.getTemplateType());
+        if (required == null) {
+            throw new IllegalArgumentException("Invalid template type");
+        }
+        Map<String, Object> values = new HashMap<>();
+        values.put("title", progress.getTitle());
+        values.put("description", progress.getDescription());
+        values.put("tutorialName", progress.getTutorialName());
+        values.put("projectName", progress.getProjectName());
+        for (String field : required) {
+            if (isBlank(values.get(field))) {
+                throw new IllegalArgumentException(templateMessage(progress.getTemplateType()));
+            }
         }
 
         progress.setCreatedAt(new Date());
         progress.setUpdatedAt(new Date());
         progress.setLikes(new ArrayList<>());
         progress.setComments(new ArrayList<>());
-        return learningProgressRepository.save(progress);
+        LearningProgress saved = learningProgressRepository.save(progress);
+        userActivityService.record(saved.getUserId(), saved.getCreatedAt());
+        skillIndexService.update(saved.getUserId(), saved.getCreatedAt(), null, saved.getSkillsLearned());
+        return saved;
     }
 
     //get all learning progress entries
-    public List<LearningProgress> getAllLearningProgress() {
-        return learningProgressRepository.findAllByOrderByCreatedAtDesc();
+    public CursorPage<LearningProgress> getAllLearningProgress(String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<LearningProgress> entries = after == null
+                ? learningProgressRepository.findPage(CursorPage.request(pageSize))
+                : learningProgressRepository.findPageBefore(after.getCreatedAtDate(), after.getIdValue(),
+                        CursorPage.request(pageSize));
+        return CursorPage.of(entries, pageSize, e -> PageCursor.of(e.getCreatedAt(), e.getId()));
+    }
+
+    //get all learning progress entries, streamed as NDJSON
+    public StreamingResponseBody streamAllLearningProgress() {
+        Query query = NdjsonStreamer.newestFirst().addCriteria(Criteria.where("deletedAt").is(null));
+        return ndjsonStreamer.stream(query, LearningProgress.class, entry -> entry);
     }
 
     //get a learning progress entry by ID
     public LearningProgress getLearningProgressById(String id) {
         return learningProgressRepository.findById(id)
+                .filter(entry -> entry.getDeletedAt() == null)
                 .orElseThrow(() -> new NoSuchElementException("Learning progress not found"));
     }
 
     //get entries by user ID
-    public List<LearningProgress> getLearningProgressByUserId(String userId) {
-        return learningProgressRepository.findByUserId(userId);
+    public CursorPage<LearningProgress> getLearningProgressByUserId(String userId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<LearningProgress> entries = after == null
+                ? learningProgressRepository.findPageByUserId(userId, CursorPage.request(pageSize))
+                : learningProgressRepository.findPageByUserIdBefore(userId, after.getCreatedAtDate(),
+                        after.getIdValue(), CursorPage.request(pageSize));
+        return CursorPage.of(entries, pageSize, e -> PageCursor.of(e.getCreatedAt(), e.getId()));
     }
 
     //update learning progress entry
     public LearningProgress updateLearningProgress(String id, LearningProgress progressDetails) {
         LearningProgress progress = getLearningProgressById(id);
+        String previousSkills = progress.getSkillsLearned();
         progress.setTitle(progressDetails.getTitle());
         progress.setDescription(progressDetails.getDescription());
         progress.setTemplateType(progressDetails.getTemplateType());
@@ -95,85 +141,146 @@ public class LearningProgressService {
         progress.setChallenges(progressDetails.getChallenges());
         progress.setNextSteps(progressDetails.getNextSteps());
         progress.setUpdatedAt(new Date());
-        return learningProgressRepository.save(progress);
+        LearningProgress saved = learningProgressRepository.save(progress);
+        skillIndexService.update(saved.getUserId(), saved.getCreatedAt(), previousSkills,
+                saved.getSkillsLearned());
+        engagementService.recordEdit(LearningProgress.class, id, saved.getUserId());
+        return saved;
+    }
+
+    //change only the given fields with one $set, likes and comments written meanwhile are kept.
+    //Template rules are checked on the changed fields; where a rule depends on a field that is not
+    //part of the patch, it becomes a condition of the update filter instead of a read.
+    public PatchResultDTO patchLearningProgress(String id, Map<String, Object> fields) {
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        Update update = new Update();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (!PATCHABLE_FIELDS.contains(field.getKey())) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field.getKey());
+            }
+            if (field.getValue() != null && !(field.getValue() instanceof String)) {
+                throw new IllegalArgumentException("Field must be a string: " + field.getKey());
+            }
+            update.set(field.getKey(), field.getValue());
+        }
+
+        Criteria filter = Criteria.where("id").is(id).and("deletedAt").is(null);
+        if (fields.containsKey("templateType")) {
+            Object templateType = fields.get("templateType");
+            List<String> required = templateType == null ? null : TEMPLATE_REQUIRED_FIELDS.get(templateType);
+            if (required == null) {
+                throw new IllegalArgumentException("Invalid template type");
+            }
+            for (String field : required) {
+                if (!fields.containsKey(field)) {
+                    filter.and(field).nin(null, "");
+                } else if (isBlank(fields.get(field))) {
+                    throw new IllegalArgumentException(templateMessage((String) templateType));
+                }
+            }
+        } else {
+            //clearing a field is only allowed on entries whose template does not need it
+            List<String> excluded = new ArrayList<>();
+            for (Map.Entry<String, List<String>> template : TEMPLATE_REQUIRED_FIELDS.entrySet()) {
+                if (template.getValue().stream().anyMatch(f -> fields.containsKey(f) && isBlank(fields.get(f)))) {
+                    excluded.add(template.getKey());
+                }
+            }
+            if (!excluded.isEmpty()) {
+                filter.and("templateType").nin(excluded);
+            }
+        }
+
+        Date now = new Date();
+        update.set("updatedAt", now);
+        //the previous document is returned so the skill index can move from the old skills to the new ones
+        Query query = Query.query(filter);
+        query.fields().include("userId", "createdAt", "skillsLearned");
+        LearningProgress previous = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(false), LearningProgress.class);
+        if (previous != null) {
+            if (fields.containsKey("skillsLearned")) {
+                skillIndexService.update(previous.getUserId(), previous.getCreatedAt(),
+                        previous.getSkillsLearned(), (String) fields.get("skillsLearned"));
+            }
+            engagementService.recordEdit(LearningProgress.class, id, previous.getUserId());
+            return new PatchResultDTO(id, now);
+        }
+        //the filter did not match: either the entry is gone or the patch breaks its template
+        Query current = Query.query(Criteria.where("id").is(id).and("deletedAt").is(null));
+        current.fields().include("templateType");
+        LearningProgress existing = mongoTemplate.findOne(current, LearningProgress.class);
+        if (existing == null) {
+            throw new NoSuchElementException("Learning progress not found");
+        }
+        Object templateType = fields.getOrDefault("templateType", existing.getTemplateType());
+        throw new IllegalArgumentException(templateMessage((String) templateType));
+    }
+
+    private static String templateMessage(String templateType) {
+        if (templateType == null) {
+            return "Invalid template type";
+        }
+        switch (templateType) {
+            case "general":
+                return "Title and description are required for general template";
+            case "tutorial":
+                return "Title and tutorial name are required for tutorial template";
+            case "project":
+                return "Title and project name are required for project template";
+            default:
+                return "Invalid template type";
+        }
+    }
+
+    private static boolean isBlank(Object value) {
+        return value == null || value.toString().isEmpty();
     }
 
     //delete learning progress entry
     public void deleteLearningProgress(String id) {
         LearningProgress progress = getLearningProgressById(id);
         learningProgressRepository.delete(progress);
+        skillIndexService.update(progress.getUserId(), progress.getCreatedAt(), progress.getSkillsLearned(),
+                null);
+        userActivityService.unrecord(progress.getUserId(), progress.getCreatedAt());
+        engagementService.recordDelete(LearningProgress.class, id, progress.getUserId());
     }
 
     //add comment
     public LearningProgress addComment(String entryId, Comment comment) {
-        LearningProgress progress = getLearningProgressById(entryId);
-        if (progress.getComments() == null) {
-            progress.setComments(new ArrayList<>());
-        }
-        if (comment.getUserName() == null || comment.getUserName().isEmpty()) {
-            comment.setUserName("Unknown User");
-        }
-        comment.setId(UUID.randomUUID().toString());
-        comment.setCreatedAt(new Date());
-        comment.setUpdatedAt(new Date());
-        progress.getComments().add(comment);
-        if (!progress.getUserId().equals(comment.getUserId())) {
-            notificationService.createCommentNotification(entryId, progress.getUserId(), comment.getUserId(),
-                    comment.getContent());
-        }
-        return learningProgressRepository.save(progress);
+        return engagementService.comment(LearningProgress.class, entryId, comment, progress -> {
+            if (!progress.getUserId().equals(comment.getUserId())) {
+                notificationService.createCommentNotification(entryId, progress.getUserId(), comment.getUserId(),
+                        comment.getContent());
+            }
+        });
     }
 
     //update comment
     public LearningProgress updateComment(String entryId, String commentId, Comment commentDetails) {
-        LearningProgress progress = getLearningProgressById(entryId);
-        progress.getComments().stream()
-                .filter(c -> c.getId().equals(commentId))
-                .findFirst()
-                .ifPresent(c -> {
-                    c.setContent(commentDetails.getContent());
-                    c.setUpdatedAt(new Date());
-                });
-        return learningProgressRepository.save(progress);
+        return engagementService.editComment(LearningProgress.class, entryId, commentId, commentDetails.getContent());
     }
 
     //delete comment
     public LearningProgress deleteComment(String entryId, String commentId, String userId) {
-        LearningProgress progress = getLearningProgressById(entryId);
-        boolean isOwner = progress.getUserId().equals(userId);
-        progress.setComments(progress.getComments().stream()
-                .filter(c -> !(c.getId().equals(commentId) && (c.getUserId().equals(userId) || isOwner)))
-                .collect(Collectors.toList()));
-        return learningProgressRepository.save(progress);
+        return engagementService.deleteComment(LearningProgress.class, entryId, commentId, userId);
     }
 
     //add like
     public LearningProgress addLike(String entryId, Like like) {
-        LearningProgress progress = getLearningProgressById(entryId);
-        if (progress.getLikes() == null) {
-            progress.setLikes(new ArrayList<>());
-        }
-        boolean alreadyLiked = progress.getLikes().stream()
-                .anyMatch(l -> l.getUserId().equals(like.getUserId()));
-
-        if (!alreadyLiked) {
-            like.setCreatedAt(new Date());
-            progress.getLikes().add(like);
+        return engagementService.like(LearningProgress.class, entryId, like, progress -> {
             // Trigger notification if liker is not the post owner
             if (!progress.getUserId().equals(like.getUserId())) {
                 notificationService.createLikeNotification(entryId, progress.getUserId(), like.getUserId());
             }
-            return learningProgressRepository.save(progress);
-        }
-        return progress;
+        });
     }
 
     //remove like
     public LearningProgress removeLike(String entryId, String userId) {
-        LearningProgress progress = getLearningProgressById(entryId);
-        progress.setLikes(progress.getLikes().stream()
-                .filter(like -> !like.getUserId().equals(userId))
-                .collect(Collectors.toList()));
-        return learningProgressRepository.save(progress);
+        return engagementService.unlike(LearningProgress.class, entryId, userId);
     }
 }
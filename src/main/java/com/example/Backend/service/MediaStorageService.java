@@ -0,0 +1,125 @@
+package com.example.Backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.Backend.dto.MediaUploadDTO;
+import com.example.Backend.enums.MediaFormat;
+
+// Content addressed media store on the local disk. Files are named after the SHA-256 of their
+// bytes, so identical uploads are stored once and a name never changes meaning (safe to cache forever).
+@Service
+public class MediaStorageService {
+
+    public static final String URL_PREFIX = "/api/media/";
+
+    // <sha256>.<ext> for uploads, <sha256>-<width>.jpg for derivatives
+    private static final Pattern NAME = Pattern.compile("[0-9a-f]{64}(-[0-9]{2,4})?\\.[a-z0-9]{1,8}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path mediaDir;
+
+    public MediaStorageService(@Value("${file.upload-dir:./uploads/media}") String mediaDir) throws IOException {
+        this.mediaDir = Paths.get(mediaDir).toAbsolutePath().normalize();
+        Files.createDirectories(this.mediaDir);
+    }
+
+    // Streams the upload to a temp file while hashing it, then moves it to its final name. The stored
+    // extension comes from the declared type, never from the client's file name, and the leading
+    // bytes have to match that type
+    public MediaUploadDTO store(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        MediaFormat format = MediaFormat.fromContentType(file.getContentType());
+
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(mediaDir, "upload-", ".tmp");
+        byte[] header = new byte[MediaFormat.HEADER_LENGTH];
+        long size = 0;
+        try {
+            try (InputStream in = file.getInputStream(); OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (size < header.length) {
+                        System.arraycopy(buffer, 0, header, (int) size, (int) Math.min(read, header.length - size));
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            if (!format.matches(header)) {
+                throw new IllegalArgumentException("File content does not match " + format.getContentType());
+            }
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + format.getExtension();
+            Path target = mediaDir.resolve(name);
+            if (!Files.exists(target)) {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new MediaUploadDTO(URL_PREFIX + name, name, size, format.getContentType());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Only names this store produced can be resolved, which also rules out path traversal
+    public Path resolve(String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new NoSuchElementException("Media not found");
+        }
+        Path path = mediaDir.resolve(name);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchElementException("Media not found");
+        }
+        return path;
+    }
+
+    public boolean exists(String name) {
+        return Files.isRegularFile(mediaDir.resolve(name));
+    }
+
+    // Where a file with this (store generated) name lives
+    public Path pathFor(String name) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid media name");
+        }
+        return mediaDir.resolve(name);
+    }
+
+    // Fixed per extension; anything stored before uploads were restricted is served as opaque bytes
+    public MediaType getMediaType(String name) {
+        return MediaFormat.fromExtension(name.substring(name.lastIndexOf('.') + 1))
+                .map(MediaFormat::getMediaType)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    // The ETag is the content hash already contained in the name
+    public String getETag(String name) {
+        return "\"" + name.substring(0, name.indexOf('.')) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.Backend.service;
+
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// Writes query results as newline delimited JSON straight from a Mongo cursor. Memory use is one
+// cursor batch plus the generator buffer no matter how large the collection is. A client that
+// disconnects makes the next flush fail, which closes the cursor and ends the export.
+@Component
+public class NdjsonStreamer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${stream.ndjson.batch-size:500}")
+    private int batchSize;
+
+    @Value("${stream.ndjson.flush-every:200}")
+    private int flushEvery;
+
+    // Every document of the collection, newest first (uses the createdAt_id index)
+    public static Query newestFirst() {
+        return new Query().with(Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+    }
+
+    public <T> StreamingResponseBody stream(Query query, Class<T> type, Function<? super T, ?> mapper) {
+        return out -> {
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            query.cursorBatchSize(batchSize);
+            try (Stream<T> documents = mongoTemplate.stream(query, type);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                Iterator<T> iterator = documents.iterator();
+                int written = 0;
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, mapper.apply(iterator.next()));
+                    generator.writeRaw('\n');
+                    if (++written % flushEvery == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.flush();
+            }
+        };
+    }
+}
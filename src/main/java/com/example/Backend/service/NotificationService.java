@@ -1,52 +1,340 @@
 package com.example.Backend.service;
 
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PageCursor;
 import com.example.Backend.model.Notification;
+import com.example.Backend.model.NotificationActor;
 import com.example.Backend.model.User;
 import com.example.Backend.repository.NotificationRepository;
-import com.example.Backend.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+// Like and comment notifications are queued and written by one background worker, so a like
+// costs the request thread nothing but an offer. The worker looks up the trigger users' names for a
+// whole batch at once and coalesces notifications about the same post into one aggregate document
+// per time window ("Alice and 41 others liked your post"). When the queue is full new notifications
+// are dropped and counted; losing a notification is better than slowing down likes.
 @Service
 public class NotificationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
     @Autowired
     private NotificationRepository notificationRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private MongoTemplate mongoTemplate;
+
+    // A notification waiting for its trigger user's name
+    private static final class Pending {
+        final String userId;
+        final String type;
+        final String postId;
+        final String triggerUserId;
+        final String commentContent;
+        final Date createdAt = new Date();
+
+        Pending(String userId, String type, String postId, String triggerUserId, String commentContent) {
+            this.userId = userId;
+            this.type = type;
+            this.postId = postId;
+            this.triggerUserId = triggerUserId;
+            this.commentContent = commentContent;
+        }
+    }
+
+    private final BlockingQueue<Pending> queue;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong maxQueued = new AtomicLong();
+    private final AtomicLong totalDelayMillis = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong aggregatesCreated = new AtomicLong();
+    private final long windowMillis;
+    private final int recentActorCount;
+    private final int trackedActorCount;
+
+    public NotificationService(@Value("${notification.queue.capacity:10000}") int queueCapacity,
+                               @Value("${notification.batch-size:200}") int batchSize,
+                               @Value("${notification.linger-ms:50}") long lingerMillis,
+                               @Value("${notification.coalesce.window-minutes:60}") long windowMinutes,
+                               @Value("${notification.coalesce.recent-actors:3}") int recentActorCount,
+                               @Value("${notification.coalesce.tracked-actors:1000}") int trackedActorCount) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.windowMillis = TimeUnit.MINUTES.toMillis(windowMinutes);
+        this.recentActorCount = recentActorCount;
+        this.trackedActorCount = trackedActorCount;
+        this.worker = new Thread(this::drain, "notification-writer");
+        this.worker.setDaemon(true);
+    }
+
+    // Started once the injected fields are set, the worker uses mongoTemplate right away
+    @PostConstruct
+    public void start() {
+        worker.start();
+    }
 
     public void createLikeNotification(String postId, String postOwnerId, String triggerUserId) {
-        User triggerUser = userRepository.findById(triggerUserId)
-                .orElseThrow(() -> new RuntimeException("Trigger user not found"));
-        String message = triggerUser.getName() + " liked your post.";
-        Notification notification = new Notification(postOwnerId, "LIKE", postId, triggerUserId, message);
-        notificationRepository.save(notification);
+        enqueue(new Pending(postOwnerId, "LIKE", postId, triggerUserId, null));
     }
 
     public void createCommentNotification(String postId, String postOwnerId, String triggerUserId,
             String commentContent) {
-        User triggerUser = userRepository.findById(triggerUserId)
-                .orElseThrow(() -> new RuntimeException("Trigger user not found"));
-        String message = triggerUser.getName() + " commented on your post: " + commentContent;
-        Notification notification = new Notification(postOwnerId, "COMMENT", postId, triggerUserId, message);
-        notificationRepository.save(notification);
+        enqueue(new Pending(postOwnerId, "COMMENT", postId, triggerUserId, commentContent));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("maxQueued", maxQueued.get());
+        stats.put("enqueued", enqueued.get());
+        stats.put("dropped", dropped.get());
+        stats.put("written", written.get());
+        // Of those, merged into an aggregate that already existed
+        stats.put("merged", merged.get());
+        stats.put("aggregatesCreated", aggregatesCreated.get());
+        // Trigger user no longer exists
+        stats.put("skipped", skipped.get());
+        stats.put("failed", failed.get());
+        long batchCount = batches.get();
+        stats.put("batches", batchCount);
+        stats.put("averageBatchSize", batchCount == 0 ? 0 : (written.get() + skipped.get() + failed.get()) / batchCount);
+        long done = written.get();
+        stats.put("averageDelayMillis", done == 0 ? 0 : totalDelayMillis.get() / done);
+        return stats;
+    }
+
+    // Whatever is still queued is written before the application context closes
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(5000);
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int start = 0; start < rest.size(); start += batchSize) {
+            write(rest.subList(start, Math.min(start + batchSize, rest.size())));
+        }
+    }
+
+    private void enqueue(Pending pending) {
+        if (!queue.offer(pending)) {
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                logger.warn("Notification queue is full ({}), {} notifications dropped so far", queueCapacity,
+                        dropped.get());
+            }
+            return;
+        }
+        enqueued.incrementAndGet();
+        maxQueued.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    // Waits for the first notification, then up to linger-ms for more, so a burst becomes one batch
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + lingerMillis;
+                while (batch.size() < batchSize) {
+                    Pending next = queue.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Shutting down, the remaining batch is written below and the rest by shutdown()
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batches.incrementAndGet();
+        try {
+            Map<String, String> names = triggerUserNames(batch);
+            Map<String, List<Pending>> groups = new LinkedHashMap<>();
+            for (Pending pending : batch) {
+                if (names.get(pending.triggerUserId) == null) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                groups.computeIfAbsent(pending.userId + "|" + pending.type + "|" + pending.postId,
+                        key -> new ArrayList<>()).add(pending);
+            }
+            for (List<Pending> group : groups.values()) {
+                try {
+                    merge(group, names);
+                    written.addAndGet(group.size());
+                    long now = System.currentTimeMillis();
+                    group.forEach(pending -> totalDelayMillis.addAndGet(now - pending.createdAt.getTime()));
+                } catch (RuntimeException e) {
+                    failed.addAndGet(group.size());
+                    logger.warn("Could not write {} notifications: {}", group.size(), e.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            logger.warn("Could not write {} notifications: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // Notifications for one recipient, type and post are upserted into the open aggregate: unread and
+    // started less than window-minutes before the latest one. After it was read, or once the window
+    // has passed, the next like or comment starts a new aggregate. The last tracked-actors distinct
+    // actors are remembered, so a user who likes, unlikes and likes again is counted and named once.
+    // Beyond that the count is approximate: an actor who dropped out of the list is counted again,
+    // which keeps a post with many likers from growing its aggregate without bound.
+    private void merge(List<Pending> group, Map<String, String> names) {
+        Pending first = group.get(0);
+        Pending latest = group.get(group.size() - 1);
+        Map<String, NotificationActor> actors = new LinkedHashMap<>();
+        for (Pending pending : group) {
+            actors.remove(pending.triggerUserId);
+            actors.put(pending.triggerUserId, new NotificationActor(pending.triggerUserId, names.get(pending.triggerUserId)));
+        }
+        List<String> actorIds = new ArrayList<>(actors.keySet());
+        List<Document> actorDocuments = actors.values().stream()
+                .map(actor -> new Document("userId", actor.getUserId()).append("name", actor.getName()))
+                .collect(Collectors.toList());
+
+        Document filter = new Document("userId", first.userId)
+                .append("postId", first.postId)
+                .append("type", first.type)
+                .append("read", false)
+                .append("windowStart", new Document("$gte", new Date(latest.createdAt.getTime() - windowMillis)));
+        // Actors already in the aggregate are neither counted again nor listed twice; they move to the end
+        Document knownIds = new Document("$ifNull", List.of("$actorIds", Collections.emptyList()));
+        Document otherIds = new Document("$filter", new Document("input", knownIds)
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this", actorIds))))));
+        Document otherActors = new Document("$filter", new Document("input",
+                new Document("$ifNull", List.of("$recentActors", Collections.emptyList())))
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this.userId", actorIds))))));
+        Document newActorCount = new Document("$size", new Document("$setDifference", List.of(actorIds, knownIds)));
+        List<Document> pipeline = List.of(new Document("$set", new Document()
+                .append("actorCount", new Document("$add",
+                        List.of(new Document("$ifNull", List.of("$actorCount", 0)), newActorCount)))
+                .append("actorIds", new Document("$slice", List.of(new Document("$concatArrays",
+                        List.of(otherIds, new Document("$literal", actorIds))), -trackedActorCount)))
+                .append("recentActors", new Document("$slice", List.of(new Document("$concatArrays",
+                        List.of(otherActors, new Document("$literal", actorDocuments))), -recentActorCount)))
+                .append("triggerUserId", new Document("$literal", latest.triggerUserId))
+                .append("createdAt", latest.createdAt)
+                .append("windowStart", new Document("$ifNull", List.of("$windowStart", first.createdAt)))));
+        Document after = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Notification.class))
+                .findOneAndUpdate(filter, pipeline, new FindOneAndUpdateOptions()
+                        .sort(new Document("windowStart", -1)).upsert(true).returnDocument(ReturnDocument.AFTER));
+        Notification aggregate = mongoTemplate.getConverter().read(Notification.class, after);
+        if (first.createdAt.equals(aggregate.getWindowStart())) {
+            aggregatesCreated.incrementAndGet();
+        } else {
+            merged.addAndGet(group.size());
+        }
+        // Conditional on the count and latest actor, so an aggregate that moved on meanwhile keeps its newer message
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(aggregate.getId())
+                        .and("actorCount").is(aggregate.getActorCount())
+                        .and("triggerUserId").is(aggregate.getTriggerUserId())),
+                new Update().set("message", message(aggregate, latest)), Notification.class);
+    }
+
+    // "Alice liked your post.", "Alice and Bob liked your post.", "Alice and 41 others liked your post."
+    private static String message(Notification aggregate, Pending latest) {
+        List<NotificationActor> actors = aggregate.getRecentActors();
+        String name = actors.get(actors.size() - 1).getName();
+        int others = aggregate.getActorCount() - 1;
+        boolean like = "LIKE".equals(aggregate.getType());
+        if (others <= 0) {
+            return like ? name + " liked your post." : name + " commented on your post: " + latest.commentContent;
+        }
+        String action = like ? " liked your post." : " commented on your post.";
+        if (others == 1 && actors.size() > 1) {
+            return name + " and " + actors.get(actors.size() - 2).getName() + action;
+        }
+        return name + " and " + others + (others == 1 ? " other" : " others") + action;
+    }
+
+    // One query for the whole batch, only the name is read
+    private Map<String, String> triggerUserNames(List<Pending> batch) {
+        Set<String> ids = batch.stream().map(p -> p.triggerUserId).collect(Collectors.toSet());
+        Query query = Query.query(Criteria.where("id").in(ids).and("deletedAt").is(null));
+        query.fields().include("name");
+        Map<String, String> names = new HashMap<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            names.put(user.getId(), user.getName());
+        }
+        return names;
     }
 
-    public List<Notification> getUserNotifications(String userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public CursorPage<Notification> getUserNotifications(String userId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Notification> notifications = after == null
+                ? notificationRepository.findPageByUserId(userId, CursorPage.request(pageSize))
+                : notificationRepository.findPageByUserIdBefore(userId, after.getCreatedAtDate(),
+                        after.getIdValue(), CursorPage.request(pageSize));
+        return CursorPage.of(notifications, pageSize, n -> PageCursor.of(n.getCreatedAt(), n.getId()));
     }
 
     public List<Notification> getUnreadNotifications(String userId) {
         return notificationRepository.findByUserIdAndReadFalse(userId);
     }
 
+    // Only the flag is written, a like merged into the aggregate meanwhile is kept
     public void markNotificationAsRead(String notificationId) {
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new RuntimeException("Notification not found"));
-        notification.setRead(true);
-        notificationRepository.save(notification);
+        long matched = mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(notificationId)),
+                new Update().set("read", true), Notification.class).getMatchedCount();
+        if (matched == 0) {
+            throw new RuntimeException("Notification not found");
+        }
     }
 }
\ No newline at end of file
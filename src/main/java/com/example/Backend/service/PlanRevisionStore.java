@@ -0,0 +1,113 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.LearningPlan;
+import com.example.Backend.model.PlanRevision;
+import com.example.Backend.model.PlanTopic;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Copy-on-write storage for forked learning plans. A fork points at (source, revision); the content
+// at that revision is read from the live source until the source changes, and from a PlanRevision
+// snapshot after that. Content at a given revision never changes, so cached entries need no invalidation.
+@Service
+public class PlanRevisionStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, PlanRevision> cache;
+
+    public PlanRevisionStore(MongoTemplate mongoTemplate,
+                             @Value("${plans.fork.cache-size:10000}") long cacheSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    // The plan as clients see it: a fork's own fields, the rest from its source at the pinned revision.
+    // Fills the plan in place, so only use it on plans that are not written back.
+    public LearningPlan materialize(LearningPlan plan) {
+        if (plan.getForkOf() == null || !inheritsContent(plan)) {
+            return plan;
+        }
+        PlanRevision source = content(plan.getForkOf(), plan.getForkRevision());
+        if (source == null) {
+            return plan;
+        }
+        if (plan.getTitle() == null) {
+            plan.setTitle(source.getTitle());
+        }
+        if (plan.getDescription() == null) {
+            plan.setDescription(source.getDescription());
+        }
+        if (plan.getTopics() == null) {
+            plan.setTopics(copyTopics(source.getTopics()));
+        }
+        if (plan.getResources() == null) {
+            plan.setResources(source.getResources());
+        }
+        return plan;
+    }
+
+    // Content of a plan at a revision, null when neither the plan nor a snapshot has it.
+    // Not cache.get(key, loader): resolving a fork of a fork loads its source from inside the loader.
+    public PlanRevision content(String planId, int revision) {
+        String key = PlanRevision.idOf(planId, revision);
+        PlanRevision content = cache.getIfPresent(key);
+        if (content == null) {
+            content = load(planId, revision);
+            if (content != null) {
+                cache.put(key, content);
+            }
+        }
+        return content;
+    }
+
+    // Keep the plan's current content for its forks, called before the content changes or the plan goes away
+    public void snapshot(LearningPlan plan) {
+        PlanRevision snapshot = snapshotOf(plan);
+        mongoTemplate.save(snapshot);
+        cache.put(snapshot.getId(), snapshot);
+    }
+
+    // Topics as a fork sees them: same ids and titles, copied so a caller can change the list
+    private List<PlanTopic> copyTopics(List<PlanTopic> topics) {
+        List<PlanTopic> copy = new ArrayList<>();
+        if (topics != null) {
+            topics.forEach(t -> copy.add(new PlanTopic(t.getId(), t.getTitle(), t.getResources())));
+        }
+        return copy;
+    }
+
+    // A snapshot is always written before the revision moves on, so when the live plan is already past
+    // the requested revision a second look finds the snapshot
+    private PlanRevision load(String planId, int revision) {
+        String key = PlanRevision.idOf(planId, revision);
+        PlanRevision snapshot = mongoTemplate.findById(key, PlanRevision.class);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        LearningPlan live = mongoTemplate.findById(planId, LearningPlan.class);
+        if (live != null && live.getRevision() == revision) {
+            return snapshotOf(live);
+        }
+        return mongoTemplate.findById(key, PlanRevision.class);
+    }
+
+    private PlanRevision snapshotOf(LearningPlan plan) {
+        LearningPlan merged = materialize(plan);
+        return new PlanRevision(PlanRevision.idOf(plan.getId(), plan.getRevision()), plan.getId(), plan.getRevision(),
+                merged.getTitle(), merged.getDescription(), copyTopics(merged.getTopics()), merged.getResources(),
+                new Date());
+    }
+
+    private static boolean inheritsContent(LearningPlan plan) {
+        return plan.getTitle() == null || plan.getDescription() == null || plan.getTopics() == null
+                || plan.getResources() == null;
+    }
+}
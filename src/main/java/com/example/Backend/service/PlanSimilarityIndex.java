@@ -0,0 +1,293 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.LearningPlan;
+import com.example.Backend.model.PlanTopic;
+
+// Near-duplicate lookup for learning plans. Every plan gets a MinHash signature over the word
+// shingles (single words and adjacent pairs) of its title, topics and resources. Signatures are cut
+// into bands of rows values; plans sharing any band bucket are candidates, and only candidates are
+// scored, so a lookup touches a few buckets instead of every plan. With b bands of r rows, pairs
+// above a Jaccard similarity of about (1/b)^(1/r) are very likely to meet in some bucket.
+@Service
+public class PlanSimilarityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanSimilarityIndex.class);
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PlanRevisionStore planRevisionStore;
+
+    @Autowired
+    @Qualifier("startupExecutor")
+    private ExecutorService startupExecutor;
+
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Map<String, int[]> signatures = new HashMap<>();
+    // Band key (which includes the band number) -> the plan id, or a List of ids once several plans
+    // share the bucket. Most buckets hold one plan, so this avoids a collection per bucket.
+    private final Map<Long, Object> buckets = new HashMap<>();
+
+    public PlanSimilarityIndex(@Value("${plans.similar.bands:32}") int bands,
+                               @Value("${plans.similar.rows:3}") int rows) {
+        this.bands = bands;
+        this.rows = rows;
+        // Fixed seed, so signatures stay comparable between restarts
+        Random random = new Random(0x5eed);
+        this.seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    // Adds the plan, replacing any previous version of it
+    public void index(String planId, String title, List<PlanTopic> topics, String resources) {
+        int[] signature = signature(title, topics, resources);
+        lock.writeLock().lock();
+        try {
+            removeLocked(planId);
+            if (signature == null) {
+                return;
+            }
+            signatures.put(planId, signature);
+            for (int band = 0; band < bands; band++) {
+                buckets.merge(bandKey(signature, band), planId, PlanSimilarityIndex::addToBucket);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String planId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(planId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String planId) {
+        lock.readLock().lock();
+        try {
+            return signatures.containsKey(planId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return signatures.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Plan id -> estimated Jaccard similarity, best first. The plan itself is never part of the result.
+    public Map<String, Double> findSimilar(String planId, String title, List<PlanTopic> topics, String resources,
+                                           int limit, double minSimilarity) {
+        int[] signature = signature(title, topics, resources);
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (signature == null) {
+            return result;
+        }
+        Map<String, Double> scored = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int band = 0; band < bands; band++) {
+                Object bucket = buckets.get(bandKey(signature, band));
+                if (bucket instanceof String single) {
+                    score(scored, planId, signature, single);
+                } else if (bucket != null) {
+                    for (String candidate : bucketList(bucket)) {
+                        score(scored, planId, signature, candidate);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        scored.entrySet().stream()
+                .filter(e -> e.getValue() >= minSimilarity)
+                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(e -> result.put(e.getKey(), e.getValue()));
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        startupExecutor.execute(this::build);
+    }
+
+    // One streaming pass over the live plans, plans indexed live in the meantime are kept as they are.
+    // Forks are indexed with the content they inherit from their source.
+    private void build() {
+        Query live = Query.query(Criteria.where("deletedAt").is(null));
+        live.fields().include("title", "topics", "resources", "forkOf", "forkRevision");
+        try (Stream<LearningPlan> plans = mongoTemplate.stream(live, LearningPlan.class)) {
+            Iterator<LearningPlan> iterator = plans.iterator();
+            while (iterator.hasNext()) {
+                LearningPlan plan = planRevisionStore.materialize(iterator.next());
+                if (!contains(plan.getId())) {
+                    index(plan.getId(), plan.getTitle(), plan.getTopics(), plan.getResources());
+                }
+            }
+            logger.info("Indexed {} learning plans for similarity", size());
+        } catch (Exception e) {
+            logger.warn("Could not build the plan similarity index: {}", e.getMessage());
+        }
+    }
+
+    private void removeLocked(String planId) {
+        int[] previous = signatures.remove(planId);
+        if (previous == null) {
+            return;
+        }
+        for (int band = 0; band < bands; band++) {
+            long key = bandKey(previous, band);
+            Object bucket = buckets.get(key);
+            if (bucket instanceof String) {
+                buckets.remove(key);
+            } else if (bucket != null) {
+                List<String> ids = bucketList(bucket);
+                ids.remove(planId);
+                if (ids.size() == 1) {
+                    buckets.put(key, ids.get(0));
+                }
+            }
+        }
+    }
+
+    private void score(Map<String, Double> scored, String planId, int[] signature, String candidate) {
+        if (!candidate.equals(planId) && !scored.containsKey(candidate)) {
+            scored.put(candidate, similarity(signature, signatures.get(candidate)));
+        }
+    }
+
+    private static Object addToBucket(Object bucket, Object planId) {
+        if (bucket instanceof String single) {
+            List<String> ids = new ArrayList<>(2);
+            ids.add(single);
+            ids.add((String) planId);
+            return ids;
+        }
+        bucketList(bucket).add((String) planId);
+        return bucket;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> bucketList(Object bucket) {
+        return (List<String>) bucket;
+    }
+
+    // Null when the plan has no words at all, such plans are not similar to anything
+    private int[] signature(String title, List<PlanTopic> topics, String resources) {
+        Set<Long> shingles = new HashSet<>();
+        addShingles(shingles, title);
+        if (topics != null) {
+            for (PlanTopic topic : topics) {
+                addShingles(shingles, topic.getTitle());
+                addShingles(shingles, topic.getResources());
+            }
+        }
+        addShingles(shingles, resources);
+        if (shingles.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < seeds.length; i++) {
+                int hash = (int) (mix(shingle ^ seeds[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // Words and adjacent word pairs of one text, pairs never span two texts
+    private static void addShingles(Set<Long> shingles, String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        Matcher matcher = TOKEN.matcher(text.toLowerCase(Locale.ROOT));
+        String previous = null;
+        while (matcher.find()) {
+            String word = matcher.group();
+            shingles.add(mix(word.hashCode()));
+            if (previous != null) {
+                shingles.add(mix(((long) previous.hashCode() << 32) ^ word.hashCode() ^ 0x9e3779b97f4a7c15L));
+            }
+            previous = word;
+        }
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * rows; row < (band + 1) * rows; row++) {
+            key = key * 0x100000001b3L + signature[row];
+        }
+        return mix(key);
+    }
+
+    // Share of equal signature positions, an unbiased estimate of the Jaccard similarity
+    private static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
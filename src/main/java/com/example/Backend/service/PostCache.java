@@ -0,0 +1,147 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.Like;
+import com.example.Backend.model.Post;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+// Hot post cache. Caffeine's W-TinyLFU admission keeps frequently read posts and rejects
+// one-hit wonders, the bound is an estimated size in bytes so posts with many likes count for more.
+// Cached posts are never mutated in place, writers replace them with an updated copy.
+@Component
+public class PostCache {
+
+    private final Cache<String, Post> cache;
+
+    public PostCache(@Value("${post.cache.max-weight:67108864}") long maxWeight,
+                     @Value("${post.cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String id, Post post) -> estimateSize(post))
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    // Misses are loaded once per key even under concurrent reads, missing posts are not cached
+    public Optional<Post> get(String id, Function<String, Optional<Post>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public Post getIfPresent(String id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    // Write-through for the hot mutation paths, a no-op when the post is not cached
+    public void update(String id, UnaryOperator<Post> change) {
+        cache.asMap().computeIfPresent(id, (key, cached) -> change.apply(copy(cached)));
+    }
+
+    public void applyLikes(String id, List<Like> added, Collection<String> removedUserIds, int likeCount,
+                           Date updatedAt) {
+        update(id, post -> {
+            post.setUpdatedAt(updatedAt);
+            post.getLikes().removeIf(like -> removedUserIds.contains(like.getUserId()));
+            post.getLikes().addAll(added);
+            post.setLikeCount(likeCount);
+            return post;
+        });
+    }
+
+    public void addComments(String id, List<Comment> newestFirst, int previewSize, Date updatedAt) {
+        update(id, post -> {
+            post.setUpdatedAt(updatedAt);
+            List<Comment> preview = post.getRecentComments();
+            preview.addAll(0, newestFirst);
+            if (preview.size() > previewSize) {
+                preview.subList(previewSize, preview.size()).clear();
+            }
+            post.setCommentCount(post.getCommentCount() + newestFirst.size());
+            return post;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loadSuccessCount", stats.loadSuccessCount());
+        result.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("evictionWeight", stats.evictionWeight());
+        result.put("estimatedSize", cache.estimatedSize());
+        cache.policy().eviction().ifPresent((Policy.Eviction<String, Post> eviction) -> {
+            result.put("weightedSize", eviction.weightedSize().orElse(0L));
+            result.put("maximumWeight", eviction.getMaximum());
+        });
+        return result;
+    }
+
+    private static Post copy(Post source) {
+        Post post = new Post();
+        post.setId(source.getId());
+        post.setUserId(source.getUserId());
+        post.setUserName(source.getUserName());
+        post.setDescription(source.getDescription());
+        post.setMediaUrls(source.getMediaUrls());
+        post.setMediaVariants(source.getMediaVariants());
+        post.setCreatedAt(source.getCreatedAt());
+        post.setUpdatedAt(source.getUpdatedAt());
+        post.setLikes(source.getLikes() == null ? new ArrayList<>() : new ArrayList<>(source.getLikes()));
+        post.setLikeCount(source.getLikeCount());
+        post.setRecentComments(source.getRecentComments() == null
+                ? new ArrayList<>() : new ArrayList<>(source.getRecentComments()));
+        post.setCommentCount(source.getCommentCount());
+        return post;
+    }
+
+    // Rough heap footprint, only needs to be proportional
+    private static int estimateSize(Post post) {
+        long size = 256;
+        size += length(post.getDescription()) * 2L;
+        if (post.getMediaUrls() != null) {
+            for (String url : post.getMediaUrls()) {
+                size += 64 + length(url) * 2L;
+            }
+        }
+        if (post.getMediaVariants() != null) {
+            size += post.getMediaVariants().size() * 400L;
+        }
+        if (post.getLikes() != null) {
+            size += post.getLikes().size() * 120L;
+        }
+        if (post.getRecentComments() != null) {
+            for (Comment comment : post.getRecentComments()) {
+                size += 200 + length(comment.getContent()) * 2L;
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
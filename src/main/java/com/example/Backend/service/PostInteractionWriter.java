@@ -0,0 +1,244 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.dto.LikeStatusDTO;
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.CommentBucket;
+import com.example.Backend.model.Like;
+import com.example.Backend.model.Post;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+
+// Applies one coalesced batch of interactions on a post: a single pipeline update for all likes
+// and unlikes, one push into the newest bucket (plus new buckets as needed) and one update on the
+// post for all comments. The result of
+// every operation is derived in Java from the state before the batch, as if they ran one by one.
+@Component
+public class PostInteractionWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostInteractionWriter.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    void apply(String postId, List<PostWriteCoalescer.Interaction> batch) {
+        List<PostWriteCoalescer.Interaction> likes = new ArrayList<>();
+        List<PostWriteCoalescer.Interaction> comments = new ArrayList<>();
+        for (PostWriteCoalescer.Interaction interaction : batch) {
+            (interaction.type == PostWriteCoalescer.Type.COMMENT ? comments : likes).add(interaction);
+        }
+        List<Runnable> notifications = new ArrayList<>();
+        if (!likes.isEmpty()) {
+            try {
+                applyLikes(postId, likes, notifications);
+            } catch (RuntimeException e) {
+                likes.forEach(interaction -> interaction.result.completeExceptionally(e));
+            }
+        }
+        if (!comments.isEmpty()) {
+            try {
+                applyComments(postId, comments, notifications);
+            } catch (RuntimeException e) {
+                comments.forEach(interaction -> interaction.result.completeExceptionally(e));
+            }
+        }
+        // Sent after every caller got its result
+        for (Runnable notification : notifications) {
+            try {
+                notification.run();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to send notification for post {}", postId, e);
+            }
+        }
+    }
+
+    private void applyLikes(String postId, List<PostWriteCoalescer.Interaction> batch, List<Runnable> notifications) {
+        // Last operation of each user decides whether they end up liking the post
+        Map<String, PostWriteCoalescer.Interaction> lastByUser = new LinkedHashMap<>();
+        for (PostWriteCoalescer.Interaction interaction : batch) {
+            lastByUser.put(interaction.userId, interaction);
+        }
+        List<String> users = new ArrayList<>(lastByUser.keySet());
+        List<String> unliking = new ArrayList<>();
+        List<Document> liking = new ArrayList<>();
+        lastByUser.forEach((userId, last) -> {
+            if (last.type == PostWriteCoalescer.Type.LIKE) {
+                liking.add(new Document("userId", userId).append("createdAt", last.like.getCreatedAt()));
+            } else {
+                unliking.add(userId);
+            }
+        });
+
+        // likes = existing likes minus the unliked users, plus new likes of users not already present
+        Document currentLikes = new Document("$ifNull", List.of("$likes", Collections.emptyList()));
+        Document kept = new Document("$filter", new Document("input", currentLikes)
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this.userId", unliking))))));
+        Document existingUsers = new Document("$map", new Document("input", currentLikes).append("in", "$$this.userId"));
+        Document added = new Document("$filter", new Document("input", new Document("$literal", liking))
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this.userId", existingUsers))))));
+        Date now = new Date();
+        List<Document> pipeline = List.of(
+                new Document("$set", new Document("likes", new Document("$concatArrays", List.of(kept, added)))),
+                new Document("$set", new Document("likeCount", new Document("$size", "$likes"))
+                        .append("updatedAt", now)));
+
+        // Only the batch users' likes of the previous state are returned
+        Document projection = new Document("userId", 1).append("likeCount", 1)
+                .append("likes", new Document("$filter", new Document("input", currentLikes)
+                        .append("cond", new Document("$in", List.of("$$this.userId", users)))));
+        Document before = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Post.class))
+                .findOneAndUpdate(new Document("_id", toId(postId)).append("deletedAt", null), pipeline,
+                        new FindOneAndUpdateOptions().projection(projection).returnDocument(ReturnDocument.BEFORE));
+        if (before == null) {
+            throw new RuntimeException("Post not found");
+        }
+
+        String ownerId = before.getString("userId");
+        Set<String> liked = new HashSet<>();
+        for (Document like : before.getList("likes", Document.class, Collections.emptyList())) {
+            liked.add(like.getString("userId"));
+        }
+        Set<String> likedBefore = new HashSet<>(liked);
+        int likeCount = before.get("likeCount", Number.class) == null ? 0 : before.get("likeCount", Number.class).intValue();
+        for (PostWriteCoalescer.Interaction interaction : batch) {
+            boolean like = interaction.type == PostWriteCoalescer.Type.LIKE;
+            if (like && liked.add(interaction.userId)) {
+                likeCount++;
+                if (!interaction.userId.equals(ownerId)) {
+                    notifications.add(() -> notificationService.createLikeNotification(postId, ownerId, interaction.userId));
+                }
+            } else if (!like && liked.remove(interaction.userId)) {
+                likeCount--;
+            }
+            interaction.result.complete(new LikeStatusDTO(postId, likeCount, like));
+        }
+
+        List<Like> newLikes = lastByUser.values().stream()
+                .filter(last -> last.type == PostWriteCoalescer.Type.LIKE && !likedBefore.contains(last.userId))
+                .map(last -> last.like)
+                .collect(Collectors.toList());
+        postCache.applyLikes(postId, newLikes, unliking, likeCount, now);
+        trendingService.recordLikes(postId, newLikes.size());
+    }
+
+    private void applyComments(String postId, List<PostWriteCoalescer.Interaction> batch, List<Runnable> notifications) {
+        List<Comment> comments = batch.stream().map(interaction -> interaction.comment).collect(Collectors.toList());
+        List<Comment> newestFirst = new ArrayList<>(comments);
+        Collections.reverse(newestFirst);
+
+        // Comments are stored before the post's count and preview mention them, and taken out
+        // again when the post cannot be updated, so a failed batch leaves nothing behind
+        Date now = new Date();
+        try {
+            appendToBuckets(postId, comments, now);
+        } catch (RuntimeException e) {
+            removeFromBuckets(postId, comments);
+            throw e;
+        }
+
+        Update postUpdate = new Update().inc("commentCount", comments.size()).set("updatedAt", now);
+        postUpdate.push("recentComments").atPosition(Update.Position.FIRST)
+                .slice(PostService.COMMENT_PREVIEW_SIZE).each(newestFirst.toArray());
+        Query postQuery = Query.query(Criteria.where("id").is(postId).and("deletedAt").is(null));
+        postQuery.fields().include("userId");
+        Post post;
+        try {
+            post = mongoTemplate.findAndModify(postQuery, postUpdate,
+                    FindAndModifyOptions.options().returnNew(true), Post.class);
+        } catch (RuntimeException e) {
+            removeFromBuckets(postId, comments);
+            throw e;
+        }
+        if (post == null) {
+            removeFromBuckets(postId, comments);
+            throw new RuntimeException("Post not found");
+        }
+
+        for (PostWriteCoalescer.Interaction interaction : batch) {
+            interaction.result.complete(interaction.comment);
+            //trigger notification if commenter is not the post owner
+            if (!post.getUserId().equals(interaction.comment.getUserId())) {
+                notifications.add(() -> notificationService.createCommentNotification(postId, post.getUserId(),
+                        interaction.comment.getUserId(), interaction.comment.getContent()));
+            }
+        }
+        postCache.addComments(postId, newestFirst, PostService.COMMENT_PREVIEW_SIZE, now);
+        trendingService.recordComments(postId, comments.size());
+    }
+
+    // Fills the post's newest bucket as far as it has room, the rest goes into new buckets.
+    // Older buckets are never written to, so buckets stay in chronological order.
+    private void appendToBuckets(String postId, List<Comment> comments, Date now) {
+        Query newestQuery = Query.query(Criteria.where("postId").is(postId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id")).limit(1);
+        newestQuery.fields().include("count");
+        CommentBucket newest = mongoTemplate.findOne(newestQuery, CommentBucket.class);
+
+        int start = 0;
+        if (newest != null && newest.getCount() < CommentBucket.CAPACITY) {
+            List<Comment> chunk = comments.subList(0,
+                    Math.min(CommentBucket.CAPACITY - newest.getCount(), comments.size()));
+            Update bucketUpdate = new Update().inc("count", chunk.size()).set("updatedAt", now);
+            bucketUpdate.push("comments").each(chunk.toArray());
+            // The count condition fails if another instance filled the bucket meanwhile
+            long updated = mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(newest.getId())
+                            .and("count").lte(CommentBucket.CAPACITY - chunk.size())),
+                    bucketUpdate, CommentBucket.class).getModifiedCount();
+            if (updated > 0) {
+                start = chunk.size();
+            }
+        }
+        for (; start < comments.size(); start += CommentBucket.CAPACITY) {
+            List<Comment> chunk = new ArrayList<>(
+                    comments.subList(start, Math.min(start + CommentBucket.CAPACITY, comments.size())));
+            mongoTemplate.insert(new CommentBucket(null, postId, chunk.size(), chunk, now, now));
+        }
+    }
+
+    // Best effort, the slots stay used since a bucket's count never goes down
+    private void removeFromBuckets(String postId, List<Comment> comments) {
+        List<String> commentIds = comments.stream().map(Comment::getId).collect(Collectors.toList());
+        try {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("postId").is(postId).and("comments.id").in(commentIds)),
+                    new Update().pull("comments", new Document("id", new Document("$in", commentIds))),
+                    CommentBucket.class);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to remove comments of a failed batch from post {}", postId, e);
+        }
+    }
+
+    private static Object toId(String postId) {
+        return ObjectId.isValid(postId) ? new ObjectId(postId) : postId;
+    }
+}
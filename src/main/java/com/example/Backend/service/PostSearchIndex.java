@@ -0,0 +1,385 @@
+package com.example.Backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PageCursor;
+import com.example.Backend.model.Post;
+
+// In-memory inverted index over post descriptions and author names, ranked with BM25.
+// Posts get dense int doc ids and every term keeps parallel int arrays of doc ids and term
+// frequencies, appended in doc id order. Updates re-add the post under a new doc id and
+// tombstone the old one; once tombstones pass COMPACT_RATIO the postings are rewritten.
+@Service
+public class PostSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final double COMPACT_RATIO = 0.25;
+    private static final int MIN_DOCS_TO_COMPACT = 1024;
+
+    // Score accumulator of one query: open addressing from doc id to score, sized to the postings the
+    // query visits, so its memory follows the query's work and not the size of the index
+    private static final class Scores {
+        // doc + 1, 0 marks a free slot
+        final int[] docs;
+        final float[] values;
+        private final int mask;
+
+        Scores(int expectedDocs) {
+            int capacity = Integer.highestOneBit(Math.max(2, expectedDocs * 2) - 1) << 1;
+            docs = new int[capacity];
+            values = new float[capacity];
+            mask = capacity - 1;
+        }
+
+        void add(int doc, float score) {
+            int hash = doc * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (docs[slot] != 0 && docs[slot] != doc + 1) {
+                slot = (slot + 1) & mask;
+            }
+            docs[slot] = doc + 1;
+            values[slot] += score;
+        }
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier("startupExecutor")
+    private ExecutorService startupExecutor;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Everything below is guarded by lock
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docByPostId = new HashMap<>();
+    private String[] postIds = new String[1024];
+    private int[] lengths = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int nextDoc;
+    private int deletedDocs;
+    private long totalLength;
+
+    // Adds the post, replacing any previous version of it
+    public void index(String postId, String description, String userName) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String text : new String[] {description, userName}) {
+            for (String term : tokenize(text)) {
+                frequencies.merge(term, 1, Integer::sum);
+                length++;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+            int doc = nextDoc++;
+            if (doc == postIds.length) {
+                postIds = Arrays.copyOf(postIds, doc * 2);
+                lengths = Arrays.copyOf(lengths, doc * 2);
+            }
+            postIds[doc] = postId;
+            lengths[doc] = length;
+            docByPostId.put(postId, doc);
+            totalLength += length;
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new Postings()).add(doc, frequency));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String postId) {
+        lock.readLock().lock();
+        try {
+            return docByPostId.containsKey(postId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByPostId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Post ids ordered by BM25 score, the cursor is the (score, postId) of the last hit returned
+    public CursorPage<String> search(String query, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        Hit after = decodeCursor(cursor);
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+        List<Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = topHits(terms, after, pageSize + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<String> items = new ArrayList<>(Math.min(hits.size(), pageSize));
+        for (int i = 0; i < hits.size() && i < pageSize; i++) {
+            items.add(hits.get(i).postId);
+        }
+        String nextCursor = hits.size() > pageSize ? encodeCursor(hits.get(pageSize - 1)) : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        startupExecutor.execute(this::build);
+    }
+
+    // One streaming pass over the posts, posts indexed live in the meantime are kept as they are
+    private void build() {
+        Query all = Query.query(Criteria.where("deletedAt").is(null));
+        all.fields().include("description", "userName");
+        try (Stream<Post> posts = mongoTemplate.stream(all, Post.class)) {
+            Iterator<Post> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                Post post = iterator.next();
+                if (!contains(post.getId())) {
+                    index(post.getId(), post.getDescription(), post.getUserName());
+                }
+            }
+            logger.info("Indexed {} posts for search", size());
+        } catch (Exception e) {
+            logger.warn("Could not build the post search index: {}", e.getMessage());
+        }
+    }
+
+    // Term at a time scoring, then a bounded heap keeps the best `count` hits after the cursor
+    private List<Hit> topHits(Set<String> terms, Hit after, int count) {
+        List<Postings> lists = new ArrayList<>(terms.size());
+        long visited = 0;
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                lists.add(list);
+                visited += list.size;
+            }
+        }
+        Scores scores = new Scores((int) Math.min(visited, docByPostId.size()));
+        int liveDocs = docByPostId.size();
+        float averageLength = liveDocs == 0 ? 1 : Math.max(1, (float) totalLength / liveDocs);
+        for (Postings list : lists) {
+            // Document frequency still counts tombstoned docs until the next compaction
+            float idf = (float) Math.log(1 + (liveDocs - list.size + 0.5) / (list.size + 0.5));
+            if (idf <= 0) {
+                idf = Float.MIN_NORMAL;
+            }
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                int frequency = list.freqs[i];
+                float score = idf * frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * lengths[doc] / averageLength));
+                scores.add(doc, score);
+            }
+        }
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(count + 1, (a, b) -> b.compareTo(a));
+        for (int slot = 0; slot < scores.docs.length; slot++) {
+            if (scores.docs[slot] == 0) {
+                continue;
+            }
+            int doc = scores.docs[slot] - 1;
+            float score = scores.values[slot];
+            // Skip hits already returned on earlier pages and hits that would not make this one,
+            // without allocating for them
+            if (after != null && !after.ranksAbove(score, postIds[doc])) {
+                continue;
+            }
+            if (best.size() == count && best.peek().ranksAbove(score, postIds[doc])) {
+                continue;
+            }
+            best.add(new Hit(postIds[doc], score));
+            if (best.size() > count) {
+                best.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        Collections.sort(hits);
+        return hits;
+    }
+
+    private void removeLocked(String postId) {
+        Integer doc = docByPostId.remove(postId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        deletedDocs++;
+        totalLength -= lengths[doc];
+        postIds[doc] = null;
+    }
+
+    // Drops tombstoned docs from every posting list and renumbers the live ones densely.
+    // The renumbering keeps the relative order, so posting lists stay sorted.
+    private void compactIfNeeded() {
+        if (nextDoc < MIN_DOCS_TO_COMPACT || deletedDocs < nextDoc * COMPACT_RATIO) {
+            return;
+        }
+        int[] newDoc = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            newDoc[doc] = deleted.get(doc) ? -1 : live++;
+        }
+        Iterator<Postings> lists = postings.values().iterator();
+        while (lists.hasNext()) {
+            Postings list = lists.next();
+            int kept = 0;
+            for (int i = 0; i < list.size; i++) {
+                int doc = newDoc[list.docs[i]];
+                if (doc >= 0) {
+                    list.docs[kept] = doc;
+                    list.freqs[kept] = list.freqs[i];
+                    kept++;
+                }
+            }
+            if (kept == 0) {
+                lists.remove();
+            } else {
+                list.size = kept;
+                list.docs = Arrays.copyOf(list.docs, Math.max(4, kept));
+                list.freqs = Arrays.copyOf(list.freqs, Math.max(4, kept));
+            }
+        }
+        String[] newPostIds = new String[Math.max(1024, live * 2)];
+        int[] newLengths = new int[newPostIds.length];
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (newDoc[doc] >= 0) {
+                newPostIds[newDoc[doc]] = postIds[doc];
+                newLengths[newDoc[doc]] = lengths[doc];
+                docByPostId.put(postIds[doc], newDoc[doc]);
+            }
+        }
+        postIds = newPostIds;
+        lengths = newLengths;
+        deleted.clear();
+        deletedDocs = 0;
+        nextDoc = live;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        return tokens;
+    }
+
+    // Ordered best first: higher score, then higher post id (same tie-break as the keyset pages)
+    private static final class Hit implements Comparable<Hit> {
+        final String postId;
+        final float score;
+
+        Hit(String postId, float score) {
+            this.postId = postId;
+            this.score = score;
+        }
+
+        // True when this hit comes before a hit with the given score and post id
+        boolean ranksAbove(float otherScore, String otherPostId) {
+            return score > otherScore || (score == otherScore && postId.compareTo(otherPostId) > 0);
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Float.compare(other.score, score);
+            return byScore != 0 ? byScore : other.postId.compareTo(postId);
+        }
+    }
+
+    private static String encodeCursor(Hit hit) {
+        String raw = Float.floatToIntBits(hit.score) + ":" + hit.postId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Hit decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator <= 0 || separator == decoded.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Hit(decoded.substring(separator + 1),
+                    Float.intBitsToFloat(Integer.parseInt(decoded.substring(0, separator))));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
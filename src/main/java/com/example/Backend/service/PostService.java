@@ -3,23 +3,96 @@ package com.example.Backend.service;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.LikeStatusDTO;
+import com.example.Backend.dto.PageCursor;
+import com.example.Backend.dto.PostSummaryDTO;
 import com.example.Backend.model.Comment;
+import com.example.Backend.model.CommentBucket;
 import com.example.Backend.model.Like;
+import com.example.Backend.model.MediaVariant;
 import com.example.Backend.model.Post;
+import com.example.Backend.model.TimelineEntry;
+import com.example.Backend.repository.CommentBucketRepository;
 import com.example.Backend.repository.PostRepository;
 
 @Service
 public class PostService {
+    // Number of newest comments embedded on the post for feed previews
+    public static final int COMMENT_PREVIEW_SIZE = 3;
+
     @Autowired
     private PostRepository postRepository;
 
     @Autowired
-    private NotificationService notificationService;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CommentBucketRepository commentBucketRepository;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private FollowFeedEngine followFeedEngine;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private PostWriteCoalescer postWriteCoalescer;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private UserActivityService userActivityService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private ETagService eTagService;
+
+    @Autowired
+    private NdjsonStreamer ndjsonStreamer;
+
+    @Autowired
+    private CascadeDeletionService cascadeDeletionService;
 
     public Post createPost(Post post) {
+        preparePost(post);
+        Post saved = postRepository.save(post);
+        // Checked after the save: derivatives finishing before this point are added here,
+        // the ones finishing later are added to the saved post by the image workers
+        List<MediaVariant> variants = imageDerivativeService.getAvailableVariants(saved.getMediaUrls());
+        if (!variants.isEmpty()) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(saved.getId())),
+                    new Update().addToSet("mediaVariants").each(variants.toArray()), Post.class);
+            saved.setMediaVariants(variants);
+        }
+        postSearchIndex.index(saved.getId(), saved.getDescription(), saved.getUserName());
+        feedService.fanOut(saved);
+        userActivityService.record(saved.getUserId(), saved.getCreatedAt());
+        return saved;
+    }
+
+    // Validation and defaults shared by createPost and the bulk importer
+    void preparePost(Post post) {
         if (post.getUserId() == null || post.getUserId().isEmpty()) {
             throw new IllegalArgumentException("User ID is required");
         }
@@ -29,107 +102,248 @@ public class PostService {
         post.setCreatedAt(new Date());
         post.setUpdatedAt(new Date());
         post.setLikes(new ArrayList<>());
-        post.setComments(new ArrayList<>());
-        return postRepository.save(post);
+        post.setLikeCount(0);
+        post.setRecentComments(new ArrayList<>());
+        post.setCommentCount(0);
+        post.setMediaVariants(new ArrayList<>());
     }
 
-    public List<Post> getAllPosts() {
-        return postRepository.findAllByOrderByCreatedAtDesc();
+    public CursorPage<PostSummaryDTO> getAllPosts(String cursor, Integer limit, String viewerId) {
+        return findSummaries(null, cursor, limit, viewerId);
+    }
+
+    // Version tag of a post, answered from the cache when the post is cached
+    public String getPostETag(String id) {
+        Post cached = postCache.getIfPresent(id);
+        if (cached != null && cached.getUpdatedAt() != null) {
+            return eTagService.documentTag(id, cached.getUpdatedAt().getTime());
+        }
+        return eTagService.documentTag(Post.class, id, Criteria.where("deletedAt").is(null));
+    }
+
+    // Version tag of a summary page, computed over exactly the rows findSummaries would return
+    public String getPageETag(Criteria filter, String cursor, Integer limit, String viewerId) {
+        return eTagService.pageTag(Post.class, listed(filter), cursor, limit, viewerId);
+    }
+
+    // Every post as a summary, streamed as NDJSON
+    public StreamingResponseBody streamAllPosts(String viewerId) {
+        Query query = NdjsonStreamer.newestFirst().addCriteria(Criteria.where("deletedAt").is(null));
+        applySummaryProjection(query, viewerId);
+        return ndjsonStreamer.stream(query, Post.class, post -> PostSummaryDTO.from(post, viewerId));
     }
 
     public Post getPostById(String id) {
-        return postRepository.findById(id)
+        return postCache.get(id, this::findLivePost)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
     }
 
-    public List<Post> getPostsByUserId(String userId) {
+    // Cache loader, tombstoned posts count as missing
+    private Optional<Post> findLivePost(String id) {
+        return postRepository.findById(id).filter(p -> p.getDeletedAt() == null);
+    }
+
+    public CursorPage<PostSummaryDTO> getPostsByUserId(String userId, String cursor, Integer limit,
+            String viewerId) {
 
         if(userId == null){
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+        return findSummaries(Criteria.where("userId").is(userId), cursor, limit, viewerId);
+    }
+
+    // Full text search over descriptions and author names, best match first
+    public CursorPage<PostSummaryDTO> searchPosts(String query, String cursor, Integer limit, String viewerId) {
+        CursorPage<String> hits = postSearchIndex.search(query, cursor, limit);
+        return new CursorPage<>(getSummariesByIds(hits.getItems(), viewerId), hits.getNextCursor());
+    }
+
+    // Served from the in-memory ranking, posts are read through the post cache
+    public List<PostSummaryDTO> getTrendingPosts(Integer limit, String viewerId) {
+        List<PostSummaryDTO> trending = new ArrayList<>();
+        for (String postId : trendingService.getTopPostIds(PageCursor.clampLimit(limit))) {
+            postCache.get(postId, this::findLivePost)
+                    .ifPresent(post -> trending.add(PostSummaryDTO.from(post, viewerId)));
+        }
+        return trending;
+    }
+
+    // Home feed: the user's materialized timeline merged with the large accounts they follow
+    public CursorPage<PostSummaryDTO> getHomeFeed(String userId, String cursor, Integer limit) {
+        CursorPage<TimelineEntry> timeline = followFeedEngine.readPage(userId, cursor, limit);
+        List<String> postIds = timeline.getItems().stream()
+                .map(TimelineEntry::getPostId)
+                .collect(Collectors.toList());
+        return new CursorPage<>(getSummariesByIds(postIds, userId), timeline.getNextCursor());
+    }
+
+    // Summaries in the order of the given ids, posts deleted in the meantime are skipped
+    public List<PostSummaryDTO> getSummariesByIds(List<String> postIds, String viewerId) {
+        if (postIds.isEmpty()) {
             return Collections.emptyList();
         }
-        return postRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        Query query = Query.query(Criteria.where("id").in(postIds).and("deletedAt").is(null));
+        applySummaryProjection(query, viewerId);
+        Map<String, Post> postsById = mongoTemplate.find(query, Post.class).stream()
+                .collect(Collectors.toMap(Post::getId, p -> p));
+        return postIds.stream()
+                .filter(postsById::containsKey)
+                .map(id -> PostSummaryDTO.from(postsById.get(id), viewerId))
+                .collect(Collectors.toList());
     }
 
+    // Keyset page of summaries. The projection keeps the likes and comment arrays in the
+    // database; at most the viewer's own like comes back so we can set likedByViewer.
+    private CursorPage<PostSummaryDTO> findSummaries(Criteria filter, String cursor, Integer limit,
+            String viewerId) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        Query query = Query.query(listed(filter));
+        if (after != null) {
+            query.addCriteria(after.toCriteria());
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "id")).limit(pageSize + 1);
+        applySummaryProjection(query, viewerId);
+        List<Post> posts = mongoTemplate.find(query, Post.class);
+        return CursorPage.of(posts, pageSize, p -> PageCursor.of(p.getCreatedAt(), p.getId()))
+                .map(p -> PostSummaryDTO.from(p, viewerId));
+    }
+
+    // Live posts matching the filter, shared by the summary pages and their ETags
+    private static Criteria listed(Criteria filter) {
+        Criteria live = Criteria.where("deletedAt").is(null);
+        return filter == null ? live : new Criteria().andOperator(live, filter);
+    }
+
+    private void applySummaryProjection(Query query, String viewerId) {
+        query.fields().include("userId", "userName", "description", "mediaUrls", "mediaVariants", "createdAt",
+                "updatedAt", "likeCount", "commentCount");
+        if (viewerId != null && !viewerId.isEmpty()) {
+            query.fields().elemMatch("likes", Criteria.where("userId").is(viewerId));
+        }
+    }
+
+    // Sets only the edited fields so likes and comments written concurrently by the coalescer are kept;
+    // the cached copy is dropped rather than patched and is reloaded on the next read
     public Post updatePost(String id, Post postDetails) {
-        Post post = getPostById(id);
-        post.setDescription(postDetails.getDescription());
-        post.setMediaUrls(postDetails.getMediaUrls());
-        post.setUpdatedAt(new Date());
-        return postRepository.save(post);
+        Update update = new Update()
+                .set("description", postDetails.getDescription())
+                .set("mediaUrls", postDetails.getMediaUrls())
+                .set("mediaVariants", imageDerivativeService.getAvailableVariants(postDetails.getMediaUrls()))
+                .set("updatedAt", new Date());
+        Post saved = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(id).and("deletedAt").is(null)), update,
+                FindAndModifyOptions.options().returnNew(true), Post.class);
+        if (saved == null) {
+            throw new RuntimeException("Post not found");
+        }
+        postCache.invalidate(id);
+        postSearchIndex.index(saved.getId(), saved.getDescription(), saved.getUserName());
+        return saved;
     }
 
+    // The post disappears right away, its comments and timeline entries are removed in the background
     public void deletePost(String id) {
         Post post = getPostById(id);
-        postRepository.delete(post);
+        cascadeDeletionService.deletePost(id);
+        userActivityService.unrecord(post.getUserId(), post.getCreatedAt());
     }
 
-    public Post addComment(String postId, Comment comment) {
-        Post post = getPostById(postId);
-        if (post.getComments() == null) {
-            post.setComments(new ArrayList<>());
-        }
+    // Comments are appended to the post's newest open bucket, so the write cost does not
+    // depend on how many comments the post already has. Concurrent comments are written in batches.
+    public Comment addComment(String postId, Comment comment) {
         if (comment.getUserName() == null || comment.getUserName().isEmpty()) {
             comment.setUserName("Unknown User");
         }
+        Date now = new Date();
         comment.setId(UUID.randomUUID().toString());
-        comment.setCreatedAt(new Date());
-        comment.setUpdatedAt(new Date());
-        post.getComments().add(comment);
-        post = postRepository.save(post);
-        //trigger notification if commenter is not the post owner
-        if (!post.getUserId().equals(comment.getUserId())) {
-            notificationService.createCommentNotification(postId, post.getUserId(), comment.getUserId(),
-                    comment.getContent());
-        }
-        return post;
-    }
-
-    public Post updateComment(String postId, String commentId, Comment commentDetails) {
-        Post post = getPostById(postId);
-        post.getComments().stream()
-                .filter(c -> c.getId().equals(commentId))
-                .findFirst()
-                .ifPresent(c -> {
-                    c.setContent(commentDetails.getContent());
-                    c.setUpdatedAt(new Date());
-                });
-        return postRepository.save(post);
-    }
-
-    public Post deleteComment(String postId, String commentId, String userId) {
-        Post post = getPostById(postId);
-        boolean isPostOwner = post.getUserId().equals(userId);
-        post.setComments(post.getComments().stream()
-                .filter(c -> !(c.getId().equals(commentId) && (c.getUserId().equals(userId) || isPostOwner)))
-                .collect(Collectors.toList()));
-        return postRepository.save(post);
-    }
-
-    public Post addLike(String postId, Like like) {
-        Post post = getPostById(postId);
-        if (post.getLikes() == null) {
-            post.setLikes(new ArrayList<>());
-        }
-        boolean alreadyLiked = post.getLikes().stream()
-                .anyMatch(l -> l.getUserId().equals(like.getUserId()));
-
-        if (!alreadyLiked) {
-            like.setCreatedAt(new Date());
-            post.getLikes().add(like);
-            post = postRepository.save(post);
-            // Trigger notification if liker is not the post owner
-            if (!post.getUserId().equals(like.getUserId())) {
-                notificationService.createLikeNotification(postId, post.getUserId(), like.getUserId());
+        comment.setCreatedAt(now);
+        comment.setUpdatedAt(now);
+        return postWriteCoalescer.comment(postId, comment);
+    }
+
+    public Comment updateComment(String postId, String commentId, Comment commentDetails) {
+        Date now = new Date();
+        Query bucketQuery = Query.query(Criteria.where("postId").is(postId).and("comments.id").is(commentId));
+        bucketQuery.fields().elemMatch("comments", Criteria.where("id").is(commentId));
+        CommentBucket bucket = mongoTemplate.findAndModify(bucketQuery,
+                new Update().set("comments.$.content", commentDetails.getContent()).set("comments.$.updatedAt", now),
+                FindAndModifyOptions.options().returnNew(true), CommentBucket.class);
+        if (bucket == null || bucket.getComments().isEmpty()) {
+            throw new RuntimeException("Comment not found");
+        }
+
+        // Keep the preview copy in sync, a no-op when the comment is no longer in the preview
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(postId)),
+                new Update().set("updatedAt", now)
+                        .set("recentComments.$[c].content", commentDetails.getContent())
+                        .set("recentComments.$[c].updatedAt", now)
+                        .filterArray(Criteria.where("c.id").is(commentId)),
+                Post.class);
+        postCache.invalidate(postId);
+        return bucket.getComments().get(0);
+    }
+
+    // Only the comment author or the post owner may delete a comment
+    public void deleteComment(String postId, String commentId, String userId) {
+        Query ownerQuery = Query.query(Criteria.where("id").is(postId).and("deletedAt").is(null));
+        ownerQuery.fields().include("userId");
+        Post post = mongoTemplate.findOne(ownerQuery, Post.class);
+        if (post == null) {
+            throw new RuntimeException("Post not found");
+        }
+        Criteria match = Criteria.where("id").is(commentId);
+        if (!post.getUserId().equals(userId)) {
+            match = match.and("userId").is(userId);
+        }
+        long removed = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("postId").is(postId).and("comments").elemMatch(match)),
+                new Update().pull("comments", new Document("id", commentId)),
+                CommentBucket.class).getModifiedCount();
+        if (removed > 0) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(postId)),
+                    new Update().inc("commentCount", -1).pull("recentComments", new Document("id", commentId))
+                            .set("updatedAt", new Date()),
+                    Post.class);
+            postCache.invalidate(postId);
+        }
+    }
+
+    // One bucket per page, newest comments first
+    public CursorPage<Comment> getComments(String postId, String cursor) {
+        PageCursor after = PageCursor.decode(cursor);
+        while (true) {
+            List<CommentBucket> buckets = after == null
+                    ? commentBucketRepository.findPageByPostId(postId, CursorPage.request(1))
+                    : commentBucketRepository.findPageByPostIdBefore(postId, after.getCreatedAtDate(),
+                            after.getIdValue(), CursorPage.request(1));
+            if (buckets.isEmpty()) {
+                return new CursorPage<>(Collections.emptyList(), null);
+            }
+            CommentBucket bucket = buckets.get(0);
+            PageCursor bucketCursor = PageCursor.of(bucket.getCreatedAt(), bucket.getId());
+            String nextCursor = buckets.size() > 1 ? bucketCursor.encode() : null;
+            // Skip buckets whose comments were all deleted instead of returning empty pages
+            if (bucket.getComments().isEmpty() && nextCursor != null) {
+                after = bucketCursor;
+                continue;
             }
+            List<Comment> comments = new ArrayList<>(bucket.getComments());
+            Collections.reverse(comments);
+            return new CursorPage<>(comments, nextCursor);
+        }
+    }
+
+    // Likes and unlikes of the same post are coalesced into one conditional update per batch
+    public LikeStatusDTO addLike(String postId, Like like) {
+        if (like.getUserId() == null || like.getUserId().isEmpty()) {
+            throw new IllegalArgumentException("User ID is required");
         }
-        return post;
+        like.setCreatedAt(new Date());
+        return postWriteCoalescer.like(postId, like);
     }
 
-    public Post removeLike(String postId, String userId) {
-        Post post = getPostById(postId);
-        post.setLikes(post.getLikes().stream()
-                .filter(like -> !like.getUserId().equals(userId))
-                .collect(Collectors.toList()));
-        return postRepository.save(post);
+    public LikeStatusDTO removeLike(String postId, String userId) {
+        return postWriteCoalescer.unlike(postId, userId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.dto.LikeStatusDTO;
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.Like;
+
+import jakarta.annotation.PreDestroy;
+
+// Coalesces likes, unlikes and comments on the same post. Posts are striped over single threaded
+// executors, so every write to one post is applied by one thread without contention. Operations
+// arriving within window-ms (or until max-batch is reached) are applied as one bulk update and
+// every caller waits for the result of its own operation.
+@Component
+public class PostWriteCoalescer {
+
+    enum Type { LIKE, UNLIKE, COMMENT }
+
+    // One queued operation and the future its caller is waiting on
+    static final class Interaction {
+        final Type type;
+        final String userId;
+        final Like like;
+        final Comment comment;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Interaction(Type type, String userId, Like like, Comment comment) {
+            this.type = type;
+            this.userId = userId;
+            this.like = like;
+            this.comment = comment;
+        }
+    }
+
+    private static final class Stripe {
+        final ScheduledExecutorService executor;
+        // Only touched from the stripe's own thread
+        final Map<String, List<Interaction>> pending = new HashMap<>();
+
+        Stripe(int index) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "post-writer-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Autowired
+    private PostInteractionWriter writer;
+
+    private final Stripe[] stripes;
+    private final long windowMillis;
+    private final int maxBatch;
+
+    public PostWriteCoalescer(@Value("${post.write.stripes:8}") int stripeCount,
+                              @Value("${post.write.window-ms:5}") long windowMillis,
+                              @Value("${post.write.max-batch:256}") int maxBatch) {
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(i);
+        }
+        this.windowMillis = windowMillis;
+        this.maxBatch = maxBatch;
+    }
+
+    public LikeStatusDTO like(String postId, Like like) {
+        return (LikeStatusDTO) await(submit(postId, new Interaction(Type.LIKE, like.getUserId(), like, null)));
+    }
+
+    public LikeStatusDTO unlike(String postId, String userId) {
+        return (LikeStatusDTO) await(submit(postId, new Interaction(Type.UNLIKE, userId, null, null)));
+    }
+
+    public Comment comment(String postId, Comment comment) {
+        return (Comment) await(submit(postId, new Interaction(Type.COMMENT, comment.getUserId(), null, comment)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Already scheduled flushes still run after shutdown, so queued operations are not lost
+        for (Stripe stripe : stripes) {
+            stripe.executor.shutdown();
+        }
+    }
+
+    private CompletableFuture<Object> submit(String postId, Interaction interaction) {
+        Stripe stripe = stripes[Math.floorMod(postId.hashCode(), stripes.length)];
+        stripe.executor.execute(() -> enqueue(stripe, postId, interaction));
+        return interaction.result;
+    }
+
+    private void enqueue(Stripe stripe, String postId, Interaction interaction) {
+        List<Interaction> batch = stripe.pending.computeIfAbsent(postId, id -> new ArrayList<>());
+        batch.add(interaction);
+        if (batch.size() >= maxBatch) {
+            flush(stripe, postId);
+        } else if (batch.size() == 1) {
+            stripe.executor.schedule(() -> flush(stripe, postId), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(Stripe stripe, String postId) {
+        // Null when the batch was already flushed because it reached max-batch
+        List<Interaction> batch = stripe.pending.remove(postId);
+        if (batch != null) {
+            writer.apply(postId, batch);
+        }
+    }
+
+    // Rethrow the writer's exception as is so callers see the same errors as before
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
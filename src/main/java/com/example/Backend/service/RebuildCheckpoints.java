@@ -0,0 +1,43 @@
+package com.example.Backend.service;
+
+import java.util.Date;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.RebuildCheckpoint;
+
+// Checkpoints of the startup rebuilds. A projection that is not empty is not necessarily complete,
+// live writes start filling it before the rebuild has run, so only completedAt says a rebuild is done.
+@Component
+public class RebuildCheckpoints {
+
+    private final MongoTemplate mongoTemplate;
+
+    public RebuildCheckpoints(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // The stored checkpoint, created with the given cutoff on the first attempt. Pass a time taken before
+    // this instance started recording live writes; a later attempt keeps the first attempt's cutoff.
+    public RebuildCheckpoint start(String name, Date cutoff) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(name)),
+                new Update().setOnInsert("cutoff", cutoff),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), RebuildCheckpoint.class);
+    }
+
+    // Called after each unit, a rerun skips every unit up to and including position
+    public void advance(String name, String position) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(name)), new Update().set("position", position),
+                RebuildCheckpoint.class);
+    }
+
+    public void complete(String name) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(name)), new Update().set("completedAt", new Date()),
+                RebuildCheckpoint.class);
+    }
+}
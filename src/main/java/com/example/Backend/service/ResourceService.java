@@ -6,8 +6,13 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.dto.PageCursor;
 import com.example.Backend.dto.ResourceDTO;
 import com.example.Backend.dto.ResourceResponseDTO;
 import com.example.Backend.model.Resource;
@@ -19,39 +24,63 @@ public class ResourceService {
     @Autowired
     private ResourceRepository repository;
 
+    @Autowired
+    private NdjsonStreamer ndjsonStreamer;
+
     public ResourceResponseDTO createResource(String userId, ResourceDTO dto) {
+        Resource saved = repository.save(newResource(userId, dto));
+        return toDto(saved);
+    }
+
+    // Also used by the bulk importer so both paths build the same document
+    Resource newResource(String userId, ResourceDTO dto) {
+        if (userId == null || userId.isEmpty()) {
+            throw new IllegalArgumentException("User ID is required");
+        }
         Resource resource = new Resource();
         BeanUtils.copyProperties(dto, resource);
         resource.setUserId(userId);
         long now = System.currentTimeMillis();
         resource.setCreatedAt(now);
         resource.setUpdatedAt(now);
-        Resource saved = repository.save(resource);
-        return toDto(saved);
+        return resource;
     }
 
-    public List<ResourceResponseDTO> getAllResources() {
-        return repository.findAll()
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    public CursorPage<ResourceResponseDTO> getAllResources(String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Resource> resources = after == null
+                ? repository.findPage(CursorPage.request(pageSize))
+                : repository.findPageBefore(after.getCreatedAt(), after.getIdValue(), CursorPage.request(pageSize));
+        return CursorPage.of(resources, pageSize, r -> new PageCursor(r.getCreatedAt(), r.getId()))
+                .map(this::toDto);
+    }
+
+    public StreamingResponseBody streamAllResources() {
+        Query query = NdjsonStreamer.newestFirst().addCriteria(Criteria.where("deletedAt").is(null));
+        return ndjsonStreamer.stream(query, Resource.class, this::toDto);
     }
 
     public ResourceResponseDTO getResourceById(String id) {
         Resource res = repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Resource not found"));
         return toDto(res);
     }
 
-    public List<ResourceResponseDTO> getResourcesByUser(String userId) {
-        return repository.findByUserId(userId)
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    public CursorPage<ResourceResponseDTO> getResourcesByUser(String userId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Resource> resources = after == null
+                ? repository.findPageByUserId(userId, CursorPage.request(pageSize))
+                : repository.findPageByUserIdBefore(userId, after.getCreatedAt(), after.getIdValue(),
+                        CursorPage.request(pageSize));
+        return CursorPage.of(resources, pageSize, r -> new PageCursor(r.getCreatedAt(), r.getId()))
+                .map(this::toDto);
     }
 
     public List<ResourceResponseDTO> searchByTitle(String title) {
-        return repository.findByTitleContainingIgnoreCase(title)
+        return repository.findByTitleContainingIgnoreCaseAndDeletedAtIsNull(title)
                 .stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
@@ -59,6 +88,7 @@ public class ResourceService {
 
     public ResourceResponseDTO updateResource(String id, String userId, ResourceDTO dto) {
         Resource existing = repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Resource not found"));
         if (!existing.getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized");
@@ -73,6 +103,7 @@ public class ResourceService {
 
     public void deleteResource(String id, String userId) {
         Resource existing = repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Resource not found"));
         if (!existing.getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized");
@@ -0,0 +1,187 @@
+package com.example.Backend.service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.dto.PageCursor;
+import com.example.Backend.dto.SkillCountDTO;
+import com.example.Backend.model.LearningProgress;
+import com.example.Backend.model.RebuildCheckpoint;
+import com.example.Backend.model.SkillCount;
+
+// Per-user skill frequencies. skillsLearned is free text, it is split into normalized skills and
+// every entry counts once per skill it lists; the counts move with each create, update and delete.
+@Service
+public class SkillIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkillIndexService.class);
+
+    private static final Pattern SEPARATORS = Pattern.compile("[,;\\n\\r|]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SKILL_LENGTH = 64;
+    private static final String REBUILD = "skill-index";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier("startupExecutor")
+    private ExecutorService startupExecutor;
+
+    @Autowired
+    private RebuildCheckpoints rebuildCheckpoints;
+
+    // Beans are created before the web server takes requests, so no entry was counted live before this
+    private final Date startedAt = new Date();
+    // Progress of the rebuild, read by live updates: entries created before the cutoff belong to the
+    // rebuild until it has applied their user
+    private volatile Date cutoff = startedAt;
+    private volatile String rebuiltUpTo;
+    private volatile boolean rebuilt;
+
+    // "Java, spring boot;  Docker." -> [java, spring boot, docker]
+    public static Set<String> parseSkills(String skillsLearned) {
+        Set<String> skills = new LinkedHashSet<>();
+        if (skillsLearned == null) {
+            return skills;
+        }
+        for (String part : SEPARATORS.split(skillsLearned)) {
+            String skill = WHITESPACE.matcher(part.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+            skill = skill.replaceAll("^[-*•\\s]+", "").replaceAll("[.!\\s]+$", "");
+            if (!skill.isEmpty() && skill.length() <= MAX_SKILL_LENGTH) {
+                skills.add(skill);
+            }
+        }
+        return skills;
+    }
+
+    // Move the user's counts from the skills of the old text to those of the new one, either may be null.
+    // createdAt is the entry's, an entry the rebuild has yet to count is left to it.
+    public void update(String userId, Date createdAt, String oldSkillsLearned, String newSkillsLearned) {
+        if (userId == null || leftToRebuild(userId, createdAt)) {
+            return;
+        }
+        Set<String> before = parseSkills(oldSkillsLearned);
+        Set<String> after = parseSkills(newSkillsLearned);
+        Map<String, Integer> changes = new HashMap<>();
+        before.stream().filter(s -> !after.contains(s)).forEach(s -> changes.put(s, -1));
+        after.stream().filter(s -> !before.contains(s)).forEach(s -> changes.put(s, 1));
+        try {
+            apply(userId, changes);
+        } catch (RuntimeException e) {
+            logger.warn("Could not update skills of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Most practiced skills first, ties by name, read from the (userId, count, skill) index
+    public List<SkillCountDTO> getTopSkills(String userId, Integer limit) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("count").gt(0))
+                .with(Sort.by(Sort.Order.desc("count"), Sort.Order.asc("skill")))
+                .limit(PageCursor.clampLimit(limit));
+        query.fields().include("skill", "count");
+        return mongoTemplate.find(query, SkillCount.class).stream()
+                .map(s -> new SkillCountDTO(s.getSkill(), s.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    // The rebuild counts an entry's text as it reads it, so applying an edit of it too would count the
+    // edit twice. Once the rebuild has applied the user, or has finished, edits are applied live.
+    private boolean leftToRebuild(String userId, Date createdAt) {
+        if (rebuilt || createdAt == null || !createdAt.before(cutoff)) {
+            return false;
+        }
+        String upTo = rebuiltUpTo;
+        return upTo == null || userId.compareTo(upTo) > 0;
+    }
+
+    // Counts that reach zero are removed, so the index only holds skills the user still lists
+    private void apply(String userId, Map<String, Integer> changes) {
+        boolean decremented = false;
+        for (Map.Entry<String, Integer> change : changes.entrySet()) {
+            Query query = Query.query(Criteria.where("id").is(SkillCount.idOf(userId, change.getKey())));
+            Update update = new Update().inc("count", change.getValue())
+                    .setOnInsert("userId", userId)
+                    .setOnInsert("skill", change.getKey());
+            mongoTemplate.upsert(query, update, SkillCount.class);
+            decremented |= change.getValue() < 0;
+        }
+        if (decremented) {
+            mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId).and("count").lte(0)),
+                    SkillCount.class);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        startupExecutor.execute(this::rebuild);
+    }
+
+    // One pass over the entries created before the first rebuild attempt's cutoff, entries created
+    // later are counted by createLearningProgress. Users are applied in id order and checkpointed one by
+    // one, a restarted rebuild continues after the last finished user. When the rebuild fails, edits of
+    // the users it has not reached stay unapplied: the next attempt reads their current text.
+    private void rebuild() {
+        try {
+            RebuildCheckpoint checkpoint = rebuildCheckpoints.start(REBUILD, startedAt);
+            cutoff = checkpoint.getCutoff();
+            rebuiltUpTo = checkpoint.getPosition();
+            if (checkpoint.getCompletedAt() != null) {
+                rebuilt = true;
+                return;
+            }
+            Query query = Query.query(Criteria.where("createdAt").lt(checkpoint.getCutoff())
+                    .and("deletedAt").is(null).and("skillsLearned").ne(null));
+            query.fields().include("userId", "skillsLearned");
+            Map<String, Map<String, Integer>> counts = new TreeMap<>();
+            try (Stream<Document> entries = mongoTemplate.stream(query, Document.class,
+                    mongoTemplate.getCollectionName(LearningProgress.class))) {
+                entries.forEach(entry -> {
+                    String userId = entry.getString("userId");
+                    if (userId != null) {
+                        Map<String, Integer> userCounts = counts.computeIfAbsent(userId, id -> new HashMap<>());
+                        parseSkills(entry.getString("skillsLearned")).forEach(s -> userCounts.merge(s, 1, Integer::sum));
+                    }
+                });
+            }
+            int indexed = 0;
+            for (Map.Entry<String, Map<String, Integer>> user : counts.entrySet()) {
+                if (checkpoint.getPosition() != null && user.getKey().compareTo(checkpoint.getPosition()) <= 0) {
+                    continue;
+                }
+                apply(user.getKey(), user.getValue());
+                rebuildCheckpoints.advance(REBUILD, user.getKey());
+                rebuiltUpTo = user.getKey();
+                indexed++;
+            }
+            rebuildCheckpoints.complete(REBUILD);
+            rebuilt = true;
+            logger.info("Indexed skills of {} users", indexed);
+        } catch (Exception e) {
+            logger.warn("Could not build the skill index: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.Backend.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.CommentBucket;
+import com.example.Backend.model.Like;
+import com.example.Backend.model.Post;
+
+// In-memory trending ranking with exponentially time-decayed scores. Uses forward decay: an event
+// at time t adds weight * e^((t - landmark) / tau), so scores never have to be decayed in place and
+// the ranking is the same as ranking by the decayed score now. The landmark is moved forward once per
+// half-life, rescaling every score and evicting posts that went cold, so the exponent stays small and
+// the map only holds posts with recent events. A top-K skip list is maintained on every update, so
+// reads do not touch the database and do not sort.
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+    // Scores below this (relative to one fresh event) are dropped when rebasing, about ten half-lives
+    // after a post's last event
+    private static final double MIN_SCORE = 1e-3;
+    // Events older than this many half-lives contribute less than 0.1% and are not rebuilt
+    private static final int REBUILD_HALF_LIVES = 10;
+
+    // Ordered by score descending, ties by post id
+    private static final class Scored implements Comparable<Scored> {
+        final String postId;
+        final double score;
+
+        Scored(String postId, double score) {
+            this.postId = postId;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Scored other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : postId.compareTo(other.postId);
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier("startupExecutor")
+    private ExecutorService startupExecutor;
+
+    private final long halfLifeMillis;
+    private final double tauMillis;
+    private final int topK;
+    private final double likeWeight;
+    private final double commentWeight;
+
+    // Guarded by this
+    private final Map<String, Double> scores = new HashMap<>();
+    private Map<String, Scored> topEntries = new HashMap<>();
+    private long landmark = System.currentTimeMillis();
+
+    // Read without locking. Updated in place by single events, and replaced as a whole when every score
+    // changes, so readers never see it emptied halfway through a rebuild
+    private volatile ConcurrentSkipListSet<Scored> top = new ConcurrentSkipListSet<>();
+
+    public TrendingService(@Value("${trending.half-life-minutes:360}") long halfLifeMinutes,
+                           @Value("${trending.top-k:100}") int topK,
+                           @Value("${trending.like-weight:1}") double likeWeight,
+                           @Value("${trending.comment-weight:3}") double commentWeight) {
+        this.halfLifeMillis = halfLifeMinutes * 60_000L;
+        this.tauMillis = halfLifeMillis / Math.log(2);
+        this.topK = topK;
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+    }
+
+    public void recordLikes(String postId, int likes) {
+        if (likes > 0) {
+            record(postId, System.currentTimeMillis(), likes * likeWeight);
+        }
+    }
+
+    public void recordComments(String postId, int comments) {
+        if (comments > 0) {
+            record(postId, System.currentTimeMillis(), comments * commentWeight);
+        }
+    }
+
+    // Ids of the highest scoring posts, at most top-k of them
+    public List<String> getTopPostIds(int limit) {
+        List<String> ids = new ArrayList<>(Math.min(limit, topK));
+        Iterator<Scored> iterator = top.iterator();
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next().postId);
+        }
+        return ids;
+    }
+
+    public synchronized void remove(String postId) {
+        scores.remove(postId);
+        Scored entry = topEntries.remove(postId);
+        if (entry != null) {
+            top.remove(entry);
+            // Deletes are rare, so refilling the freed slot with a full scan is fine
+            Scored best = null;
+            for (Map.Entry<String, Double> score : scores.entrySet()) {
+                if (!topEntries.containsKey(score.getKey())) {
+                    Scored candidate = new Scored(score.getKey(), score.getValue());
+                    if (best == null || candidate.compareTo(best) < 0) {
+                        best = candidate;
+                    }
+                }
+            }
+            if (best != null) {
+                addToTop(top, topEntries, best);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        startupExecutor.execute(this::rebuild);
+    }
+
+    // One streaming pass over recently liked posts and one over recently written comment buckets.
+    // Only events before the rebuild started are counted, later ones are recorded live.
+    private void rebuild() {
+        long until = System.currentTimeMillis();
+        Date horizon = new Date(until - REBUILD_HALF_LIVES * halfLifeMillis);
+        long base;
+        synchronized (this) {
+            base = landmark;
+        }
+        Map<String, Double> rebuilt = new HashMap<>();
+        try {
+            Query likedPosts = Query.query(Criteria.where("likes.createdAt").gte(horizon).and("deletedAt").is(null));
+            likedPosts.fields().include("likes.createdAt");
+            try (Stream<Post> posts = mongoTemplate.stream(likedPosts, Post.class)) {
+                posts.forEach(post -> {
+                    for (Like like : post.getLikes()) {
+                        accumulate(rebuilt, post.getId(), like.getCreatedAt(), horizon, until, likeWeight, base);
+                    }
+                });
+            }
+            Query recentBuckets = Query.query(Criteria.where("updatedAt").gte(horizon));
+            recentBuckets.fields().include("postId").include("comments.createdAt");
+            try (Stream<CommentBucket> buckets = mongoTemplate.stream(recentBuckets, CommentBucket.class)) {
+                buckets.forEach(bucket -> {
+                    for (Comment comment : bucket.getComments()) {
+                        accumulate(rebuilt, bucket.getPostId(), comment.getCreatedAt(), horizon, until,
+                                commentWeight, base);
+                    }
+                });
+            }
+            merge(rebuilt, base);
+            logger.info("Rebuilt trending scores for {} posts", rebuilt.size());
+        } catch (Exception e) {
+            logger.warn("Could not rebuild trending scores: {}", e.getMessage());
+        }
+    }
+
+    private void accumulate(Map<String, Double> rebuilt, String postId, Date at, Date horizon, long until,
+                            double weight, long base) {
+        if (at != null && !at.before(horizon) && at.getTime() < until) {
+            rebuilt.merge(postId, weight * Math.exp((at.getTime() - base) / tauMillis), Double::sum);
+        }
+    }
+
+    private synchronized void merge(Map<String, Double> rebuilt, long base) {
+        // The landmark may have moved while rebuilding
+        double factor = Math.exp((base - landmark) / tauMillis);
+        rebuilt.forEach((postId, score) -> scores.merge(postId, score * factor, Double::sum));
+        rebuildTop();
+    }
+
+    private synchronized void record(String postId, long timestamp, double weight) {
+        if (timestamp - landmark >= halfLifeMillis) {
+            rebase(timestamp);
+        }
+        double score = scores.merge(postId, weight * Math.exp((timestamp - landmark) / tauMillis), Double::sum);
+        Scored current = topEntries.remove(postId);
+        if (current != null) {
+            top.remove(current);
+        }
+        // Scores only grow, so a post can only enter the top-K through its own update
+        if (current != null || top.size() < topK || score > top.last().score) {
+            addToTop(top, topEntries, new Scored(postId, score));
+        }
+    }
+
+    private void addToTop(ConcurrentSkipListSet<Scored> ranking, Map<String, Scored> entries, Scored entry) {
+        ranking.add(entry);
+        entries.put(entry.postId, entry);
+        if (ranking.size() > topK) {
+            Scored evicted = ranking.pollLast();
+            entries.remove(evicted.postId);
+        }
+    }
+
+    // Move the landmark to now, scaling every score down and forgetting posts that went cold
+    private void rebase(long now) {
+        double factor = Math.exp((landmark - now) / tauMillis);
+        scores.replaceAll((postId, score) -> score * factor);
+        scores.values().removeIf(score -> score < MIN_SCORE);
+        landmark = now;
+        rebuildTop();
+    }
+
+    // Ranks into a fresh set and publishes it with one write
+    private void rebuildTop() {
+        ConcurrentSkipListSet<Scored> ranking = new ConcurrentSkipListSet<>();
+        Map<String, Scored> entries = new HashMap<>();
+        scores.forEach((postId, score) -> {
+            if (ranking.size() < topK || score > ranking.last().score) {
+                addToTop(ranking, entries, new Scored(postId, score));
+            }
+        });
+        topEntries = entries;
+        top = ranking;
+    }
+}
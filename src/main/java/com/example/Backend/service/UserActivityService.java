@@ -0,0 +1,295 @@
+package com.example.Backend.service;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.dto.ActivityHeatmapDTO;
+import com.example.Backend.dto.StreakDTO;
+import com.example.Backend.model.ActivityYear;
+import com.example.Backend.model.LearningPlan;
+import com.example.Backend.model.LearningProgress;
+import com.example.Backend.model.Post;
+import com.example.Backend.model.RebuildCheckpoint;
+import com.example.Backend.model.UserActivity;
+
+// Per-user activity heatmap and learning streaks. Every created or imported post, learning plan and
+// progress entry adds one to that day's slot of a per-year count array and advances the user's streak,
+// and deleting one takes it back, so the profile page reads one small document per query instead of
+// the user's whole history.
+@Service
+public class UserActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserActivityService.class);
+    private static final String REBUILD = "user-activity";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier("startupExecutor")
+    private ExecutorService startupExecutor;
+
+    @Autowired
+    private RebuildCheckpoints rebuildCheckpoints;
+
+    // Beans are created before the web server takes requests, so nothing was recorded live before this
+    private final Date startedAt = new Date();
+
+    @Value("${activity.zone:UTC}")
+    private String zone;
+
+    // Count one created item. Failures are only logged, the item itself is already saved.
+    public void record(String userId, Date createdAt) {
+        if (userId == null || createdAt == null) {
+            return;
+        }
+        try {
+            LocalDate day = createdAt.toInstant().atZone(zoneId()).toLocalDate();
+            addCounts(userId, day.getYear(), Map.of(day.getDayOfYear() - 1, 1));
+            advanceStreak(userId, day.toEpochDay());
+        } catch (RuntimeException e) {
+            logger.warn("Could not record activity of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Count items written in bulk, e.g. by an import. Their days are usually in the past, which a live
+    // streak update ignores, so the streak is computed again from the stored counts.
+    public void recordAll(Map<String, List<Date>> createdAtByUser) {
+        createdAtByUser.forEach((userId, dates) -> {
+            try {
+                Map<Integer, Map<Integer, Integer>> countsByYear = new HashMap<>();
+                for (Date createdAt : dates) {
+                    LocalDate day = createdAt.toInstant().atZone(zoneId()).toLocalDate();
+                    countsByYear.computeIfAbsent(day.getYear(), year -> new HashMap<>())
+                            .merge(day.getDayOfYear() - 1, 1, Integer::sum);
+                }
+                countsByYear.forEach((year, countsByDay) -> addCounts(userId, year, countsByDay));
+                recomputeStreak(userId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not record imported activity of user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    // Take back one deleted item. The day's slot never goes below zero, an item the rebuild has not
+    // counted yet is skipped by it anyway. The streak may end earlier now, so it is computed again.
+    public void unrecord(String userId, Date createdAt) {
+        if (userId == null || createdAt == null) {
+            return;
+        }
+        try {
+            LocalDate day = createdAt.toInstant().atZone(zoneId()).toLocalDate();
+            String slot = "counts." + (day.getDayOfYear() - 1);
+            Query query = Query.query(Criteria.where("id").is(ActivityYear.idOf(userId, day.getYear())).and(slot).gt(0));
+            if (mongoTemplate.updateFirst(query, new Update().inc(slot, -1).inc("total", -1), ActivityYear.class)
+                    .getModifiedCount() > 0) {
+                recomputeStreak(userId);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not take back activity of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Daily counts of one year, the current year by default
+    public ActivityHeatmapDTO getHeatmap(String userId, Integer year) {
+        int requested = year == null ? LocalDate.now(zoneId()).getYear() : year;
+        if (requested < 1970 || requested > 9999) {
+            throw new IllegalArgumentException("Invalid year");
+        }
+        int days = Year.of(requested).length();
+        ActivityYear activity = mongoTemplate.findById(ActivityYear.idOf(userId, requested), ActivityYear.class);
+        if (activity == null) {
+            return new ActivityHeatmapDTO(userId, requested, zeros(days), 0);
+        }
+        return new ActivityHeatmapDTO(userId, requested, activity.getCounts().subList(0, days), activity.getTotal());
+    }
+
+    // The stored streak ends at the last active day, it only counts as current until the day after
+    public StreakDTO getStreaks(String userId) {
+        UserActivity activity = mongoTemplate.findById(userId, UserActivity.class);
+        if (activity == null) {
+            return new StreakDTO(userId, 0, 0, null);
+        }
+        long today = LocalDate.now(zoneId()).toEpochDay();
+        int current = activity.getLastActiveDay() >= today - 1 ? activity.getCurrentStreak() : 0;
+        return new StreakDTO(userId, current, activity.getLongestStreak(),
+                LocalDate.ofEpochDay(activity.getLastActiveDay()).toString());
+    }
+
+    // $inc on array positions needs the array to exist, so the first write of a year inserts it
+    private void addCounts(String userId, int year, Map<Integer, Integer> countsByDay) {
+        String id = ActivityYear.idOf(userId, year);
+        Update update = new Update();
+        int total = 0;
+        for (Map.Entry<Integer, Integer> day : countsByDay.entrySet()) {
+            update.inc("counts." + day.getKey(), day.getValue());
+            total += day.getValue();
+        }
+        update.inc("total", total);
+        Query query = Query.query(Criteria.where("id").is(id));
+        if (mongoTemplate.updateFirst(query, update, ActivityYear.class).getMatchedCount() > 0) {
+            return;
+        }
+        List<Integer> counts = zeros(ActivityYear.DAYS);
+        countsByDay.forEach(counts::set);
+        try {
+            mongoTemplate.insert(new ActivityYear(id, userId, year, counts, total));
+        } catch (DuplicateKeyException e) {
+            mongoTemplate.updateFirst(query, update, ActivityYear.class);
+        }
+    }
+
+    // Compare-and-set on lastActiveDay. A second item on the same day, or one dated before the
+    // last active day, leaves the streak as it is.
+    private void advanceStreak(String userId, long day) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            UserActivity activity = mongoTemplate.findById(userId, UserActivity.class);
+            if (activity == null) {
+                try {
+                    mongoTemplate.insert(new UserActivity(userId, 1, 1, day));
+                    return;
+                } catch (DuplicateKeyException e) {
+                    continue;
+                }
+            }
+            if (activity.getLastActiveDay() >= day) {
+                return;
+            }
+            int current = activity.getLastActiveDay() == day - 1 ? activity.getCurrentStreak() + 1 : 1;
+            Query query = Query.query(Criteria.where("id").is(userId)
+                    .and("lastActiveDay").is(activity.getLastActiveDay()));
+            Update update = new Update()
+                    .set("currentStreak", current)
+                    .set("lastActiveDay", day)
+                    .max("longestStreak", current);
+            if (mongoTemplate.updateFirst(query, update, UserActivity.class).getMatchedCount() > 0) {
+                return;
+            }
+        }
+        logger.warn("Streak of user {} was not advanced, too many concurrent updates", userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        startupExecutor.execute(this::rebuild);
+    }
+
+    // One pass over the posts, plans and progress entries created before the first rebuild attempt's
+    // cutoff; everything newer is recorded live, so nothing is counted twice. Users are applied in id
+    // order and checkpointed one by one, a restarted rebuild continues after the last finished user.
+    private void rebuild() {
+        try {
+            RebuildCheckpoint checkpoint = rebuildCheckpoints.start(REBUILD, startedAt);
+            if (checkpoint.getCompletedAt() != null) {
+                return;
+            }
+            Criteria before = Criteria.where("createdAt").lt(checkpoint.getCutoff()).and("deletedAt").is(null);
+            Map<String, Map<Integer, int[]>> history = new TreeMap<>();
+            tally(history, Post.class, before);
+            tally(history, LearningPlan.class, before);
+            tally(history, LearningProgress.class, before);
+            int rebuilt = 0;
+            for (Map.Entry<String, Map<Integer, int[]>> user : history.entrySet()) {
+                if (checkpoint.getPosition() != null && user.getKey().compareTo(checkpoint.getPosition()) <= 0) {
+                    continue;
+                }
+                user.getValue().forEach((year, counts) -> addCounts(user.getKey(), year, nonZero(counts)));
+                recomputeStreak(user.getKey());
+                rebuildCheckpoints.advance(REBUILD, user.getKey());
+                rebuilt++;
+            }
+            rebuildCheckpoints.complete(REBUILD);
+            logger.info("Rebuilt activity of {} users", rebuilt);
+        } catch (Exception e) {
+            logger.warn("Could not rebuild user activity: {}", e.getMessage());
+        }
+    }
+
+    private void tally(Map<String, Map<Integer, int[]>> history, Class<?> type, Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("userId", "createdAt");
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type))) {
+            documents.forEach(document -> {
+                String userId = document.getString("userId");
+                Date createdAt = document.getDate("createdAt");
+                if (userId != null && createdAt != null) {
+                    LocalDate day = createdAt.toInstant().atZone(zoneId()).toLocalDate();
+                    history.computeIfAbsent(userId, id -> new HashMap<>())
+                            .computeIfAbsent(day.getYear(), y -> new int[ActivityYear.DAYS])[day.getDayOfYear() - 1]++;
+                }
+            });
+        }
+    }
+
+    // Streaks from the stored counts, so days recorded live during the rebuild are included.
+    // A user with no active day left has no streak document.
+    private void recomputeStreak(String userId) {
+        List<ActivityYear> years = new ArrayList<>(
+                mongoTemplate.find(Query.query(Criteria.where("userId").is(userId)), ActivityYear.class));
+        years.sort(Comparator.comparingInt(ActivityYear::getYear));
+        int run = 0;
+        int longest = 0;
+        long last = Long.MIN_VALUE;
+        for (ActivityYear year : years) {
+            int days = Year.of(year.getYear()).length();
+            for (int index = 0; index < days; index++) {
+                if (year.getCounts().get(index) > 0) {
+                    long day = LocalDate.ofYearDay(year.getYear(), index + 1).toEpochDay();
+                    run = day == last + 1 ? run + 1 : 1;
+                    longest = Math.max(longest, run);
+                    last = day;
+                }
+            }
+        }
+        if (run > 0) {
+            mongoTemplate.save(new UserActivity(userId, run, longest, last));
+        } else {
+            mongoTemplate.remove(Query.query(Criteria.where("id").is(userId)), UserActivity.class);
+        }
+    }
+
+    private static Map<Integer, Integer> nonZero(int[] counts) {
+        Map<Integer, Integer> byDay = new HashMap<>();
+        for (int index = 0; index < counts.length; index++) {
+            if (counts[index] > 0) {
+                byDay.put(index, counts[index]);
+            }
+        }
+        return byDay;
+    }
+
+    private static List<Integer> zeros(int days) {
+        return new ArrayList<>(Collections.nCopies(days, 0));
+    }
+
+    private ZoneId zoneId() {
+        return ZoneId.of(zone);
+    }
+}
@@ -37,9 +37,11 @@ public class UserService {
     private final Key jwtSecretKey;
     private final LearningProgressRepository learningProgressRepository;
     private final LearningPlanRepository learningPlanRepository;
+    private final FeedService feedService;
+    private final CascadeDeletionService cascadeDeletionService;
 
     @Autowired
-    public UserService(UserRepository userRepository, PostRepository postRepository, LearningProgressRepository progressRepository, LearningPlanRepository planRepository, BCryptPasswordEncoder bCryptPasswordEncoder, Key jwtSecretKey, LearningProgressRepository learningProgressRepository, LearningPlanService learningPlanService, LearningPlanRepository learningPlanRepository) {
+    public UserService(UserRepository userRepository, PostRepository postRepository, LearningProgressRepository progressRepository, LearningPlanRepository planRepository, BCryptPasswordEncoder bCryptPasswordEncoder, Key jwtSecretKey, LearningProgressRepository learningProgressRepository, LearningPlanService learningPlanService, LearningPlanRepository learningPlanRepository, FeedService feedService, CascadeDeletionService cascadeDeletionService) {
         this.userRepository = userRepository;
         this.postRepository = postRepository;
         this.progressRepository = progressRepository;
@@ -48,6 +50,8 @@ public class UserService {
         this.jwtSecretKey = jwtSecretKey;
         this.learningProgressRepository = learningProgressRepository;
         this.learningPlanRepository = learningPlanRepository;
+        this.feedService = feedService;
+        this.cascadeDeletionService = cascadeDeletionService;
     }
 
     public ResponseEntity<Object> createUser(User user) {
@@ -90,7 +94,7 @@ public class UserService {
     }
 
     public ResponseEntity<Object> loginUser(String email, String password) {
-        Optional<User> user = userRepository.findByEmail(email);
+        Optional<User> user = userRepository.findByEmail(email).filter(u -> u.getDeletedAt() == null);
 
         if (user.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User credentials are incorrect");
@@ -184,7 +188,7 @@ public class UserService {
 
     //gt full user profile by ID
     public ResponseEntity<?> getUserProfile(String userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<User> userOpt = findActiveUser(userId);
 
         if (userOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
@@ -244,8 +248,8 @@ public class UserService {
 
     //follow user
     public ResponseEntity<?> followUser(String userId, String followerId) {
-        Optional<User> targetUserOpt = userRepository.findById(userId);
-        Optional<User> followerUserOpt = userRepository.findById(followerId);
+        Optional<User> targetUserOpt = findActiveUser(userId);
+        Optional<User> followerUserOpt = findActiveUser(followerId);
 
         if (targetUserOpt.isEmpty() || followerUserOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
@@ -266,6 +270,7 @@ public class UserService {
         try {
             userRepository.save(targetUser);
             userRepository.save(followerUser);
+            feedService.backfill(followerId, userId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Successfully followed user");
@@ -279,8 +284,8 @@ public class UserService {
 
     //unfollow user
     public ResponseEntity<?> unfollowUser(String userId, String followerId) {
-        Optional<User> targetUserOpt = userRepository.findById(userId);
-        Optional<User> followerUserOpt = userRepository.findById(followerId);
+        Optional<User> targetUserOpt = findActiveUser(userId);
+        Optional<User> followerUserOpt = findActiveUser(followerId);
 
         if (targetUserOpt.isEmpty() || followerUserOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
@@ -296,6 +301,7 @@ public class UserService {
         try {
             userRepository.save(targetUser);
             userRepository.save(followerUser);
+            feedService.removeAuthor(followerId, userId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Successfully unfollowed user");
@@ -307,9 +313,22 @@ public class UserService {
         }
     }
 
+    //delete the account, its content is removed in the background
+    public ResponseEntity<?> deleteUser(String userId) {
+        if (findActiveUser(userId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(cascadeDeletionService.deleteUser(userId));
+    }
+
+    //deleted accounts stay in the collection until their cascade finishes
+    private Optional<User> findActiveUser(String userId) {
+        return userRepository.findById(userId).filter(user -> user.getDeletedAt() == null);
+    }
+
     //ටet all content by user ID
     public ResponseEntity<?> getUserContent(String userId) {
-        if (!userRepository.existsById(userId)) {
+        if (findActiveUser(userId).isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         }
 
@@ -0,0 +1,93 @@
+package com.example.Backend.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.Backend.dto.CursorPage;
+import com.example.Backend.service.PostSearchIndex;
+
+// Query latency of PostSearchIndex over synthetic posts with a skewed (Zipf like) vocabulary.
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.example.Backend.benchmark.PostSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class PostSearchBenchmark {
+    private static final int VOCABULARY = 50_000;
+    private static final int WORDS_PER_POST = 12;
+
+    @Param({"1000000"})
+    public int postCount;
+
+    private PostSearchIndex index;
+    private String secondPageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = buildIndex(postCount);
+        secondPageCursor = index.search("w1", null, 20).getNextCursor();
+    }
+
+    // A term found in a large share of the posts
+    @Benchmark
+    public CursorPage<String> commonTerm() {
+        return index.search("w1", null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<String> commonTermSecondPage() {
+        return index.search("w1", secondPageCursor, 20);
+    }
+
+    @Benchmark
+    public CursorPage<String> twoMidFrequencyTerms() {
+        return index.search("w300 w2000", null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<String> rareTerms() {
+        return index.search("w30000 w45000", null, 20);
+    }
+
+    static PostSearchIndex buildIndex(int postCount) {
+        PostSearchIndex index = new PostSearchIndex();
+        Random random = new Random(42);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < postCount; i++) {
+            description.setLength(0);
+            for (int j = 0; j < WORDS_PER_POST; j++) {
+                // Cubing a uniform value makes low word numbers far more frequent
+                int word = (int) (VOCABULARY * Math.pow(random.nextDouble(), 3));
+                description.append('w').append(word).append(' ');
+            }
+            index.index(String.format("%024x", i), description.toString(), "Author " + (i % 10_000));
+        }
+        return index;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long started = System.nanoTime();
+        PostSearchIndex index = buildIndex(1_000_000);
+        System.out.printf("indexed %d posts in %d ms%n", index.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        new Runner(new OptionsBuilder().include(PostSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
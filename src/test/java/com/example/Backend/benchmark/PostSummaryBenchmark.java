@@ -0,0 +1,110 @@
+package com.example.Backend.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.Backend.dto.PostSummaryDTO;
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.Like;
+import com.example.Backend.model.Post;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Serialization cost of a feed page as full Post documents vs PostSummaryDTO.
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.example.Backend.benchmark.PostSummaryBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostSummaryBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10", "1000", "10000"})
+    public int likesPerPost;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Post> fullPage;
+    private List<PostSummaryDTO> summaryPage;
+
+    @Setup
+    public void setUp() {
+        fullPage = buildPage(likesPerPost);
+        summaryPage = new ArrayList<>();
+        for (Post post : fullPage) {
+            summaryPage.add(PostSummaryDTO.from(post, "viewer"));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeFullPosts() throws Exception {
+        return objectMapper.writeValueAsBytes(fullPage);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws Exception {
+        return objectMapper.writeValueAsBytes(summaryPage);
+    }
+
+    static List<Post> buildPage(int likesPerPost) {
+        List<Post> page = new ArrayList<>();
+        Date now = new Date();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            List<Like> likes = new ArrayList<>();
+            for (int j = 0; j < likesPerPost; j++) {
+                likes.add(new Like(UUID.randomUUID().toString(), now));
+            }
+            List<Comment> recentComments = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                recentComments.add(new Comment(UUID.randomUUID().toString(), "user-" + j, "User " + j,
+                        "Nice post, thanks for sharing this one!", now, now));
+            }
+            Post post = new Post();
+            post.setId(UUID.randomUUID().toString());
+            post.setUserId("author-" + i);
+            post.setUserName("Author " + i);
+            post.setDescription("Sharing what I learned about keyset pagination today. #mongodb #java");
+            post.setMediaUrls(List.of("/api/media/" + UUID.randomUUID() + ".jpg"));
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            post.setLikes(likes);
+            post.setLikeCount(likesPerPost);
+            post.setRecentComments(recentComments);
+            post.setCommentCount(3);
+            page.add(post);
+        }
+        return page;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int likes : new int[] {10, 1000, 10000}) {
+            List<Post> page = buildPage(likes);
+            List<PostSummaryDTO> summaries = new ArrayList<>();
+            for (Post post : page) {
+                summaries.add(PostSummaryDTO.from(post, "viewer"));
+            }
+            System.out.printf("likes/post=%d full page=%d bytes summary page=%d bytes%n", likes,
+                    objectMapper.writeValueAsBytes(page).length, objectMapper.writeValueAsBytes(summaries).length);
+        }
+        new Runner(new OptionsBuilder().include(PostSummaryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.Backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.CommentBucket;
+import com.example.Backend.model.LearningPlan;
+import com.example.Backend.model.PlanCompletion;
+import com.example.Backend.model.Post;
+import com.mongodb.client.result.UpdateResult;
+
+class DataMigrationConfigTest {
+
+    private final Map<String, List<Document>> collections = new HashMap<>();
+    private final Map<String, CommentBucket> buckets = new LinkedHashMap<>();
+    private final Map<String, Set<Object>> completions = new HashMap<>();
+    private final DataMigrationConfig migration = new DataMigrationConfig();
+    private RuntimeException failPostUpdate;
+    private UpdateMapper updateMapper;
+
+    @BeforeEach
+    void setUp() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        updateMapper = new UpdateMapper(converter);
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(LearningPlan.class)).thenReturn("learning_plan");
+        when(mongoTemplate.getCollectionName(Post.class)).thenReturn("posts");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), anyString()))
+                .thenAnswer(call -> {
+                    Document filter = call.<Query>getArgument(0).getQueryObject();
+                    return collection(call.getArgument(2)).stream()
+                            .filter(document -> matches(document, filter)).map(Document::new).toList().stream();
+                });
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), anyString()))
+                .thenAnswer(call -> updateFirst(call.getArgument(2), call.getArgument(0), call.getArgument(1)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Post.class)))
+                .thenAnswer(call -> {
+                    if (failPostUpdate != null) {
+                        throw failPostUpdate;
+                    }
+                    return updateFirst("posts", call.getArgument(0), call.getArgument(1));
+                });
+        when(mongoTemplate.save(any(CommentBucket.class))).thenAnswer(call -> {
+            CommentBucket bucket = call.getArgument(0);
+            buckets.put(bucket.getId(), bucket);
+            return bucket;
+        });
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(PlanCompletion.class)))
+                .thenAnswer(call -> {
+                    String id = call.<Query>getArgument(0).getQueryObject().getString("_id");
+                    Document update = updateMapper.getMappedObject(
+                            call.<UpdateDefinition>getArgument(1).getUpdateObject(), Optional.empty());
+                    Document added = (Document) update.get("$addToSet", Document.class).get("topicIds");
+                    completions.computeIfAbsent(id, key -> new HashSet<>()).addAll(added.getList("$each", Object.class));
+                    return UpdateResult.acknowledged(1, 1L, null);
+                });
+        ReflectionTestUtils.setField(migration, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void splitsLegacyTopicTextIntoTopicList() {
+        collection("learning_plan").add(new Document("_id", "legacy").append("topics", "Streams\nCollectors\n\n"));
+
+        migration.structureLearningPlanTopics();
+
+        Document plan = collection("learning_plan").get(0);
+        assertThat(plan).doesNotContainKey("topics").containsEntry("topicCount", 2);
+        assertThat(plan.getList(LearningPlan.TOPICS_FIELD, Document.class))
+                .extracting(topic -> topic.getString("title")).containsExactly("Streams", "Collectors");
+    }
+
+    @Test
+    void forkInheritingTopicsSurvivesRepeatedRuns() {
+        List<Document> plans = collection("learning_plan");
+        plans.add(new Document("_id", "legacy").append("topics", "Streams, Collectors"));
+        plans.add(new Document("_id", "fork").append("forkOf", "source").append("forkRevision", 3L));
+        Document forkBefore = new Document(plans.get(1));
+
+        migration.structureLearningPlanTopics();
+        Document migrated = new Document(plans.get(0));
+        migration.structureLearningPlanTopics();
+
+        assertThat(plans.get(1)).isEqualTo(forkBefore).doesNotContainKey(LearningPlan.TOPICS_FIELD);
+        assertThat(plans.get(0)).isEqualTo(migrated);
+    }
+
+    @Test
+    void movesTopicCompletionsOutOfThePlan() {
+        List<Document> plans = collection("learning_plan");
+        plans.add(new Document("_id", "plan").append("completedCounts", new Document("u1", 2).append("u2", 1))
+                .append(LearningPlan.TOPICS_FIELD, List.of(
+                        new Document("_id", "t1").append("title", "Streams").append("completedBy", List.of("u1", "u2")),
+                        new Document("_id", "t2").append("title", "Collectors").append("completedBy", List.of("u1")))));
+        plans.add(new Document("_id", "fork").append("forkOf", "plan").append("completedCounts", new Document()));
+
+        migration.moveTopicCompletions();
+        migration.moveTopicCompletions();
+
+        assertThat(completions).containsOnlyKeys("plan:u1", "plan:u2");
+        assertThat(completions.get("plan:u1")).containsExactlyInAnyOrder("t1", "t2");
+        assertThat(completions.get("plan:u2")).containsExactly("t1");
+        assertThat(plans).allSatisfy(plan -> assertThat(plan).doesNotContainKey("completedCounts"));
+        assertThat(plans.get(0).getList(LearningPlan.TOPICS_FIELD, Document.class))
+                .allSatisfy(topic -> assertThat(topic).doesNotContainKey("completedBy"));
+        assertThat(plans.get(1)).doesNotContainKey(LearningPlan.TOPICS_FIELD);
+    }
+
+    @Test
+    void rerunAfterCrashDoesNotDuplicateCommentsOrDropLiveOnes() {
+        List<Document> legacyComments = new ArrayList<>();
+        for (int i = 0; i < CommentBucket.CAPACITY + 2; i++) {
+            legacyComments.add(new Document("_id", "old" + i).append("content", "old " + i)
+                    .append("createdAt", new Date(1000L * i)));
+        }
+        // One comment was written through the buckets after the new code went live
+        collection("posts").add(new Document("_id", "p1").append("comments", legacyComments)
+                .append("commentCount", 1).append("recentComments", List.of(new Document("_id", "live"))));
+
+        failPostUpdate = new IllegalStateException("crash");
+        assertThatThrownBy(migration::moveEmbeddedPostComments).isSameAs(failPostUpdate);
+        failPostUpdate = null;
+        migration.moveEmbeddedPostComments();
+        migration.moveEmbeddedPostComments();
+
+        assertThat(buckets).containsOnlyKeys("p1:0000", "p1:0001");
+        assertThat(buckets.values()).flatExtracting(CommentBucket::getComments).extracting(Comment::getId)
+                .hasSize(CommentBucket.CAPACITY + 2).doesNotHaveDuplicates();
+        Document post = collection("posts").get(0);
+        assertThat(post).doesNotContainKey("comments").containsEntry("commentCount", CommentBucket.CAPACITY + 3);
+        assertThat(post.getList("recentComments", Object.class)).hasSize(3)
+                .first().isEqualTo(new Document("_id", "live"));
+    }
+
+    private List<Document> collection(String name) {
+        return collections.computeIfAbsent(name, key -> new ArrayList<>());
+    }
+
+    private UpdateResult updateFirst(String collectionName, Query query, UpdateDefinition definition) {
+        Document filter = query.getQueryObject();
+        Document update = updateMapper.getMappedObject(definition.getUpdateObject(), Optional.empty());
+        for (Document document : collection(collectionName)) {
+            if (matches(document, filter)) {
+                document.putAll(update.get("$set", new Document()));
+                update.get("$unset", new Document()).keySet().forEach(field -> unset(document, field));
+                update.get("$inc", new Document()).forEach((field, amount) ->
+                        document.put(field, document.getInteger(field, 0) + ((Number) amount).intValue()));
+                update.get("$push", new Document()).forEach((field, push) -> {
+                    List<Object> values = new ArrayList<>(document.getList(field, Object.class, List.of()));
+                    values.addAll(((Document) push).getList("$each", Object.class));
+                    Integer slice = ((Document) push).getInteger("$slice");
+                    document.put(field, slice == null ? values : values.subList(0, Math.min(slice, values.size())));
+                });
+                return UpdateResult.acknowledged(1, 1L, null);
+            }
+        }
+        return UpdateResult.acknowledged(0, 0L, null);
+    }
+
+    // A plain field, or a field inside every element of an array ("array.$[].field")
+    private static void unset(Document document, String field) {
+        String[] path = field.split("\\.\\$\\[\\]\\.");
+        if (path.length == 1) {
+            document.remove(field);
+        } else {
+            document.getList(path[0], Document.class).forEach(element -> element.remove(path[1]));
+        }
+    }
+
+    // Just enough of the query language for the migration's filters: equality, $and, $exists and $type string
+    private static boolean matches(Document document, Document filter) {
+        for (Map.Entry<String, Object> clause : filter.entrySet()) {
+            if (clause.getKey().equals("$and")) {
+                for (Object part : (List<?>) clause.getValue()) {
+                    if (!matches(document, (Document) part)) {
+                        return false;
+                    }
+                }
+            } else if (clause.getValue() instanceof Document operator && operator.containsKey("$exists")) {
+                if (operator.getBoolean("$exists") != document.containsKey(clause.getKey())) {
+                    return false;
+                }
+            } else if (clause.getValue() instanceof Document operator && operator.containsKey("$type")) {
+                if (!(document.get(clause.getKey()) instanceof String)) {
+                    return false;
+                }
+            } else if (!clause.getValue().equals(document.get(clause.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
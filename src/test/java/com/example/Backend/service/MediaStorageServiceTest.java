@@ -0,0 +1,53 @@
+package com.example.Backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.example.Backend.dto.MediaUploadDTO;
+
+class MediaStorageServiceTest {
+
+    private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13 };
+
+    @TempDir
+    Path mediaDir;
+
+    @Test
+    void extensionFollowsDeclaredTypeNotFileName() throws IOException {
+        MediaStorageService storage = new MediaStorageService(mediaDir.toString());
+
+        MediaUploadDTO media = storage.store(new MockMultipartFile("file", "avatar.html", "image/png", PNG));
+
+        assertThat(media.getName()).endsWith(".png");
+        assertThat(media.getContentType()).isEqualTo("image/png");
+        assertThat(storage.getMediaType(media.getName())).isEqualTo(MediaType.IMAGE_PNG);
+    }
+
+    @Test
+    void rejectsContentThatDoesNotMatchDeclaredType() throws IOException {
+        MediaStorageService storage = new MediaStorageService(mediaDir.toString());
+        byte[] html = "<html><script>alert(1)</script></html>".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> storage.store(new MockMultipartFile("file", "cat.png", "image/png", html)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storage.store(new MockMultipartFile("file", "cat.svg", "image/svg+xml", html)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(mediaDir).isEmptyDirectory();
+    }
+
+    @Test
+    void servesUnknownLegacyExtensionsAsOpaqueBytes() throws IOException {
+        MediaStorageService storage = new MediaStorageService(mediaDir.toString());
+
+        assertThat(storage.getMediaType("0".repeat(64) + ".html")).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+    }
+}
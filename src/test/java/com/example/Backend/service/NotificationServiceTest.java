@@ -0,0 +1,209 @@
+package com.example.Backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.Backend.model.Notification;
+import com.example.Backend.model.User;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.result.UpdateResult;
+
+class NotificationServiceTest {
+
+    private final List<Document> aggregates = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+    private MongoTemplate mongoTemplate;
+    private NotificationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        mongoTemplate = mock(MongoTemplate.class);
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(Notification.class)).thenReturn("notifications");
+        when(mongoTemplate.getCollection("notifications")).thenReturn(collection);
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenAnswer(call -> users);
+        when(collection.findOneAndUpdate(any(Document.class), anyList(), any(FindOneAndUpdateOptions.class)))
+                .thenAnswer(call -> upsert(call.getArgument(0), call.<List<Document>>getArgument(1).get(0)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Notification.class)))
+                .thenAnswer(call -> setMessage(call.getArgument(0), call.getArgument(1)));
+        service = new NotificationService(100, 50, 0, 60, 3, 1000);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        user("u1", "Ann");
+        user("u2", "Bob");
+        user("u3", "Cy");
+    }
+
+    @Test
+    void repeatedActorsAreCountedOnceAcrossBatches() throws Exception {
+        service.createLikeNotification("p1", "owner", "u1");
+        service.createLikeNotification("p1", "owner", "u2");
+        service.createLikeNotification("p1", "owner", "u1");
+        service.shutdown();
+        service.createLikeNotification("p1", "owner", "u1");
+        service.createLikeNotification("p1", "owner", "u3");
+        service.shutdown();
+
+        assertThat(aggregates).hasSize(1);
+        Document aggregate = aggregates.get(0);
+        assertThat(aggregate.getInteger("actorCount")).isEqualTo(3);
+        assertThat(aggregate.getList("recentActors", Document.class)).extracting(actor -> actor.getString("userId"))
+                .containsExactly("u2", "u1", "u3");
+        assertThat(aggregate.getString("message")).isEqualTo("Cy and 2 others liked your post.");
+        assertThat(service.getStats()).containsEntry("aggregatesCreated", 1L).containsEntry("merged", 2L);
+    }
+
+    @Test
+    void actorsBeyondTheTrackedOnesAreCountedAgain() throws Exception {
+        service = new NotificationService(100, 50, 0, 60, 3, 2);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        service.createLikeNotification("p1", "owner", "u1");
+        service.createLikeNotification("p1", "owner", "u2");
+        service.createLikeNotification("p1", "owner", "u3");
+        service.shutdown();
+        service.createLikeNotification("p1", "owner", "u3");
+        service.createLikeNotification("p1", "owner", "u1");
+        service.shutdown();
+
+        Document aggregate = aggregates.get(0);
+        assertThat(aggregate.getInteger("actorCount")).isEqualTo(4);
+        assertThat(aggregate.getList("actorIds", String.class)).containsExactly("u3", "u1");
+        assertThat(aggregate.getList("recentActors", Document.class)).extracting(actor -> actor.getString("userId"))
+                .containsExactly("u2", "u3", "u1");
+    }
+
+    @Test
+    void recipientsTypesAndPostsAreAggregatedSeparately() throws Exception {
+        service.createLikeNotification("p1", "owner", "u1");
+        service.createCommentNotification("p1", "owner", "u2", "Nice");
+        service.createLikeNotification("p2", "owner", "u1");
+        service.createLikeNotification("p1", "other", "u2");
+        service.shutdown();
+
+        assertThat(aggregates).extracting(aggregate -> aggregate.getString("message")).containsExactly(
+                "Ann liked your post.", "Bob commented on your post: Nice", "Ann liked your post.",
+                "Bob liked your post.");
+    }
+
+    @Test
+    void twoActorsAreBothNamed() throws Exception {
+        service.createLikeNotification("p1", "owner", "u1");
+        service.createLikeNotification("p1", "owner", "u2");
+        service.shutdown();
+
+        assertThat(aggregates.get(0).getString("message")).isEqualTo("Bob and Ann liked your post.");
+    }
+
+    @Test
+    void readAggregateIsNotMergedInto() throws Exception {
+        service.createLikeNotification("p1", "owner", "u1");
+        service.shutdown();
+        aggregates.get(0).put("read", true);
+        service.createLikeNotification("p1", "owner", "u2");
+        service.shutdown();
+
+        assertThat(aggregates).hasSize(2);
+        assertThat(aggregates.get(1).getInteger("actorCount")).isEqualTo(1);
+        assertThat(aggregates.get(1).getString("message")).isEqualTo("Bob liked your post.");
+    }
+
+    @Test
+    void notificationsFromDeletedUsersAreSkipped() throws Exception {
+        service.createLikeNotification("p1", "owner", "gone");
+        service.shutdown();
+
+        assertThat(aggregates).isEmpty();
+        assertThat(service.getStats()).containsEntry("skipped", 1L);
+    }
+
+    private void user(String id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        users.add(user);
+    }
+
+    // Just enough of the aggregate upsert: the filter's equality fields and windowStart bound, and the
+    // $set stage's semantics with its literal arguments taken from the pipeline
+    @SuppressWarnings("unchecked")
+    private Document upsert(Document filter, Document stage) {
+        Document set = stage.get("$set", Document.class);
+        Date windowBound = filter.get("windowStart", Document.class).getDate("$gte");
+        Document aggregate = aggregates.stream()
+                .filter(candidate -> candidate.get("userId").equals(filter.get("userId"))
+                        && candidate.get("postId").equals(filter.get("postId"))
+                        && candidate.get("type").equals(filter.get("type"))
+                        && !candidate.getBoolean("read")
+                        && !candidate.getDate("windowStart").before(windowBound))
+                .max(Comparator.comparing(candidate -> candidate.getDate("windowStart")))
+                .orElse(null);
+        if (aggregate == null) {
+            aggregate = new Document("_id", new ObjectId()).append("userId", filter.get("userId"))
+                    .append("postId", filter.get("postId")).append("type", filter.get("type")).append("read", false);
+            aggregates.add(aggregate);
+        }
+        List<Object> idSlice = set.get("actorIds", Document.class).getList("$slice", Object.class);
+        List<Object> idConcat = ((Document) idSlice.get(0)).getList("$concatArrays", Object.class);
+        List<String> actorIds = ((Document) idConcat.get(1)).getList("$literal", String.class);
+        int track = -((Number) idSlice.get(1)).intValue();
+        List<Object> slice = set.get("recentActors", Document.class).getList("$slice", Object.class);
+        List<Object> concat = ((Document) slice.get(0)).getList("$concatArrays", Object.class);
+        List<Document> actors = ((Document) concat.get(1)).getList("$literal", Document.class);
+        int keep = -((Number) slice.get(1)).intValue();
+
+        List<String> known = new ArrayList<>(aggregate.getList("actorIds", String.class, List.of()));
+        long added = actorIds.stream().filter(id -> !known.contains(id)).count();
+        known.removeAll(actorIds);
+        known.addAll(actorIds);
+        List<Document> recent = new ArrayList<>(aggregate.getList("recentActors", Document.class, List.of()));
+        recent.removeIf(actor -> actorIds.contains(actor.getString("userId")));
+        recent.addAll(actors);
+        aggregate.put("actorCount", aggregate.getInteger("actorCount", 0) + (int) added);
+        aggregate.put("actorIds", new ArrayList<>(known.subList(Math.max(0, known.size() - track), known.size())));
+        aggregate.put("recentActors", new ArrayList<>(recent.subList(Math.max(0, recent.size() - keep), recent.size())));
+        aggregate.put("triggerUserId", set.get("triggerUserId", Document.class).get("$literal"));
+        aggregate.put("createdAt", set.get("createdAt"));
+        if (!aggregate.containsKey("windowStart")) {
+            aggregate.put("windowStart", set.get("windowStart", Document.class).getList("$ifNull", Object.class).get(1));
+        }
+        return new Document(aggregate);
+    }
+
+    private UpdateResult setMessage(Query query, Update update) {
+        Document filter = query.getQueryObject();
+        for (Document aggregate : aggregates) {
+            if (aggregate.get("_id").toString().equals(filter.get("id"))
+                    && aggregate.get("actorCount").equals(filter.get("actorCount"))
+                    && aggregate.get("triggerUserId").equals(filter.get("triggerUserId"))) {
+                aggregate.put("message", update.getUpdateObject().get("$set", Document.class).get("message"));
+                return UpdateResult.acknowledged(1, 1L, null);
+            }
+        }
+        return UpdateResult.acknowledged(0, 0L, null);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.Backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.Backend.model.LearningPlan;
+import com.example.Backend.model.PlanRevision;
+import com.example.Backend.model.PlanTopic;
+
+class PlanRevisionStoreTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private PlanRevisionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new PlanRevisionStore(mongoTemplate, 100);
+    }
+
+    @Test
+    void forkReadsInheritedFieldsFromTheLiveSourceAtItsRevision() {
+        LearningPlan source = plan("src", 2, "Java", "From scratch", List.of(new PlanTopic("t1", "Streams", null)));
+        when(mongoTemplate.findById("src", LearningPlan.class)).thenReturn(source);
+        LearningPlan fork = fork("fork", "src", 2);
+        fork.setTitle("My Java");
+
+        store.materialize(fork);
+
+        assertThat(fork.getTitle()).isEqualTo("My Java");
+        assertThat(fork.getDescription()).isEqualTo("From scratch");
+        assertThat(fork.getTopics()).extracting(PlanTopic::getId).containsExactly("t1");
+        assertThat(fork.getTopics()).isNotSameAs(source.getTopics());
+    }
+
+    @Test
+    void sourceThatMovedOnIsReadFromTheSnapshot() {
+        when(mongoTemplate.findById("src", LearningPlan.class))
+                .thenReturn(plan("src", 3, "Java 21", "Rewritten", List.of()));
+        when(mongoTemplate.findById(PlanRevision.idOf("src", 2), PlanRevision.class))
+                .thenReturn(new PlanRevision("src:2", "src", 2, "Java", "From scratch", List.of(), null, null));
+        LearningPlan fork = fork("fork", "src", 2);
+
+        store.materialize(fork);
+
+        assertThat(fork.getTitle()).isEqualTo("Java");
+        assertThat(fork.getDescription()).isEqualTo("From scratch");
+    }
+
+    @Test
+    void snapshotTakenBeforeAnEditKeepsServingTheOldRevision() {
+        LearningPlan source = plan("src", 2, "Java", "From scratch", List.of());
+        store.snapshot(source);
+        ArgumentCaptor<PlanRevision> saved = ArgumentCaptor.forClass(PlanRevision.class);
+        verify(mongoTemplate).save(saved.capture());
+        assertThat(saved.getValue().getId()).isEqualTo("src:2");
+        when(mongoTemplate.findById("src", LearningPlan.class))
+                .thenReturn(plan("src", 3, "Java 21", "Rewritten", List.of()));
+
+        LearningPlan fork = store.materialize(fork("fork", "src", 2));
+
+        assertThat(fork.getTitle()).isEqualTo("Java");
+    }
+
+    @Test
+    void forkOfAForkResolvesThroughTheChain() {
+        when(mongoTemplate.findById("root", LearningPlan.class))
+                .thenReturn(plan("root", 1, "Java", "From scratch", List.of()));
+        LearningPlan middle = fork("middle", "root", 1);
+        middle.setTitle("Java for teams");
+        when(mongoTemplate.findById("middle", LearningPlan.class)).thenReturn(middle);
+
+        LearningPlan leaf = store.materialize(fork("leaf", "middle", 0));
+
+        assertThat(leaf.getTitle()).isEqualTo("Java for teams");
+        assertThat(leaf.getDescription()).isEqualTo("From scratch");
+    }
+
+    @Test
+    void planThatOverridesEverythingIsNotResolved() {
+        LearningPlan fork = fork("fork", "src", 2);
+        fork.setTitle("Own");
+        fork.setDescription("Own");
+        fork.setTopics(List.of());
+        fork.setResources("Own");
+
+        store.materialize(fork);
+
+        verify(mongoTemplate, never()).findById(any(), any());
+    }
+
+    private static LearningPlan plan(String id, int revision, String title, String description, List<PlanTopic> topics) {
+        LearningPlan plan = new LearningPlan();
+        plan.setId(id);
+        plan.setRevision(revision);
+        plan.setTitle(title);
+        plan.setDescription(description);
+        plan.setTopics(topics);
+        plan.setResources("");
+        return plan;
+    }
+
+    private static LearningPlan fork(String id, String forkOf, int forkRevision) {
+        LearningPlan fork = new LearningPlan();
+        fork.setId(id);
+        fork.setForkOf(forkOf);
+        fork.setForkRevision(forkRevision);
+        return fork;
+    }
+}
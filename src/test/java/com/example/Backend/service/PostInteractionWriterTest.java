@@ -0,0 +1,102 @@
+package com.example.Backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.CommentBucket;
+import com.example.Backend.model.Post;
+import com.mongodb.client.result.UpdateResult;
+
+class PostInteractionWriterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final PostInteractionWriter writer = new PostInteractionWriter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(writer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(writer, "notificationService", mock(NotificationService.class));
+        ReflectionTestUtils.setField(writer, "postCache", mock(PostCache.class));
+        ReflectionTestUtils.setField(writer, "trendingService", mock(TrendingService.class));
+        Post post = new Post();
+        post.setUserId("owner");
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Post.class))).thenReturn(post);
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CommentBucket.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @Test
+    void fillsOnlyTheNewestBucketThenOpensNewOnes() {
+        when(mongoTemplate.findOne(any(Query.class), eq(CommentBucket.class)))
+                .thenReturn(new CommentBucket("newest", "p1", CommentBucket.CAPACITY - 2, null, null, null));
+        List<PostWriteCoalescer.Interaction> batch = comments(5);
+
+        writer.apply("p1", batch);
+
+        ArgumentCaptor<Query> bucketQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(bucketQuery.capture(), any(UpdateDefinition.class), eq(CommentBucket.class));
+        assertThat(bucketQuery.getValue().getQueryObject().get("id")).isEqualTo("newest");
+        ArgumentCaptor<CommentBucket> inserted = ArgumentCaptor.forClass(CommentBucket.class);
+        verify(mongoTemplate).insert(inserted.capture());
+        assertThat(inserted.getValue().getComments()).extracting(Comment::getId).containsExactly("c2", "c3", "c4");
+        assertThat(batch).allMatch(interaction -> interaction.result.isDone() && !interaction.result.isCompletedExceptionally());
+    }
+
+    @Test
+    void fullNewestBucketIsNotWrittenTo() {
+        when(mongoTemplate.findOne(any(Query.class), eq(CommentBucket.class)))
+                .thenReturn(new CommentBucket("newest", "p1", CommentBucket.CAPACITY, null, null, null));
+
+        writer.apply("p1", comments(1));
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CommentBucket.class));
+        verify(mongoTemplate).insert(any(CommentBucket.class));
+    }
+
+    @Test
+    void commentsAreRemovedAgainWhenThePostIsGone() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Post.class))).thenReturn(null);
+        List<PostWriteCoalescer.Interaction> batch = comments(2);
+
+        writer.apply("p1", batch);
+
+        ArgumentCaptor<Query> postQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(postQuery.capture(), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Post.class));
+        assertThat(postQuery.getValue().getQueryObject()).containsEntry("deletedAt", null);
+        verify(mongoTemplate).insert(any(CommentBucket.class));
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(CommentBucket.class));
+        assertThat(batch).allMatch(interaction -> interaction.result.isCompletedExceptionally());
+    }
+
+    private static List<PostWriteCoalescer.Interaction> comments(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Comment comment = new Comment();
+            comment.setId("c" + i);
+            comment.setUserId("u" + i);
+            return new PostWriteCoalescer.Interaction(PostWriteCoalescer.Type.COMMENT, comment.getUserId(), null, comment);
+        }).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.Backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.Backend.dto.CursorPage;
+
+class PostSearchIndexTest {
+
+    private final PostSearchIndex index = new PostSearchIndex();
+
+    @Test
+    void ranksByTermFrequencyAndDocumentLength() {
+        index.index("a", "java streams", "ann");
+        index.index("b", "java java streams", "bob");
+        index.index("c", "java streams and a lot of other words about nothing in particular", "cy");
+
+        assertThat(index.search("java", null, 10).getItems()).containsExactly("b", "a", "c");
+    }
+
+    @Test
+    void rareTermsOutweighCommonOnes() {
+        index.index("common", "java java java", "ann");
+        index.index("rare", "java kotlin", "bob");
+        for (int i = 0; i < 20; i++) {
+            index.index("filler" + i, "java spring", "user" + i);
+        }
+
+        assertThat(index.search("java kotlin", null, 3).getItems()).first().isEqualTo("rare");
+    }
+
+    @Test
+    void equalScoresBreakTiesByPostIdAndPagesDoNotOverlap() {
+        for (int i = 0; i < 7; i++) {
+            index.index("p" + i, "java", "same");
+        }
+
+        List<String> all = new ArrayList<>();
+        CursorPage<String> page = index.search("java", null, 3);
+        all.addAll(page.getItems());
+        while (page.getNextCursor() != null) {
+            page = index.search("java", page.getNextCursor(), 3);
+            all.addAll(page.getItems());
+        }
+
+        assertThat(all).containsExactly("p6", "p5", "p4", "p3", "p2", "p1", "p0");
+    }
+
+    @Test
+    void updatedAndRemovedPostsSurviveCompaction() {
+        for (int i = 0; i < 2000; i++) {
+            index.index("p" + i, "post number " + i, "user");
+        }
+        for (int i = 0; i < 1000; i++) {
+            index.remove("p" + i);
+        }
+        index.index("p1999", "renamed kotlin post", "user");
+
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(index.search("1500", null, 10).getItems()).containsExactly("p1500");
+        assertThat(index.search("500", null, 10).getItems()).isEmpty();
+        assertThat(index.search("1999", null, 10).getItems()).isEmpty();
+        assertThat(index.search("kotlin", null, 10).getItems()).containsExactly("p1999");
+    }
+}
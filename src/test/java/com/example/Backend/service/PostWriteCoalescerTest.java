@@ -0,0 +1,110 @@
+package com.example.Backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.Backend.model.Comment;
+import com.example.Backend.model.Like;
+
+class PostWriteCoalescerTest {
+
+    private final PostInteractionWriter writer = mock(PostInteractionWriter.class);
+    // postId:batch size of every writer call, in call order
+    private final List<String> applied = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PostWriteCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentWritesToOnePostBecomeOneBatch() throws Exception {
+        coalescer = coalescer(60_000, 10);
+        List<Future<Comment>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Comment comment = new Comment();
+            comment.setUserId("u" + i);
+            results.add(callers.submit(() -> coalescer.comment("p1", comment)));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS).getUserId()).startsWith("u");
+        }
+        assertThat(applied).containsExactly("p1:10");
+    }
+
+    @Test
+    void batchIsFlushedWhenTheWindowEnds() {
+        coalescer = coalescer(20, 256);
+
+        coalescer.like("p1", like("u1"));
+
+        assertThat(applied).containsExactly("p1:1");
+    }
+
+    @Test
+    void differentPostsAreNotMixed() throws Exception {
+        coalescer = coalescer(60_000, 2);
+        List<Future<?>> results = new ArrayList<>();
+        for (String postId : List.of("p1", "p2", "p1", "p2")) {
+            results.add(callers.submit(() -> coalescer.like(postId, like("u"))));
+        }
+
+        for (Future<?> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(applied).containsExactlyInAnyOrder("p1:2", "p2:2");
+    }
+
+    @Test
+    void everyCallerGetsTheWritersException() {
+        coalescer = coalescer(20, 256);
+        doAnswer(call -> {
+            List<PostWriteCoalescer.Interaction> batch = call.getArgument(1);
+            batch.forEach(interaction -> interaction.result.completeExceptionally(
+                    new RuntimeException("Post not found")));
+            return null;
+        }).when(writer).apply(anyString(), anyList());
+
+        assertThatThrownBy(() -> coalescer.unlike("p1", "u1"))
+                .isInstanceOf(RuntimeException.class).hasMessage("Post not found");
+    }
+
+    private PostWriteCoalescer coalescer(long windowMillis, int maxBatch) {
+        PostWriteCoalescer coalescer = new PostWriteCoalescer(2, windowMillis, maxBatch);
+        ReflectionTestUtils.setField(coalescer, "writer", writer);
+        doAnswer(call -> {
+            String postId = call.getArgument(0);
+            List<PostWriteCoalescer.Interaction> batch = call.getArgument(1);
+            applied.add(postId + ":" + batch.size());
+            batch.forEach(interaction -> interaction.result.complete(interaction.comment));
+            return null;
+        }).when(writer).apply(anyString(), anyList());
+        return coalescer;
+    }
+
+    private static Like like(String userId) {
+        Like like = new Like();
+        like.setUserId(userId);
+        return like;
+    }
+}
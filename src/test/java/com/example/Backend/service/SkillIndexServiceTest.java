@@ -0,0 +1,64 @@
+package com.example.Backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.Backend.model.SkillCount;
+
+class SkillIndexServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final SkillIndexService service = new SkillIndexService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void parseSkillsNormalizesAndDeduplicates() {
+        assertThat(SkillIndexService.parseSkills("Java, spring  boot;  Docker.\n- java | REST!"))
+                .containsExactly("java", "spring boot", "docker", "rest");
+    }
+
+    @Test
+    void parseSkillsDropsEmptyAndOverlongParts() {
+        assertThat(SkillIndexService.parseSkills(null)).isEmpty();
+        assertThat(SkillIndexService.parseSkills(" ,;| \n")).isEmpty();
+        assertThat(SkillIndexService.parseSkills("go, " + "x".repeat(65))).containsExactly("go");
+    }
+
+    @Test
+    void editsOfEntriesLeftToTheRebuildAreNotApplied() {
+        Date beforeCutoff = new Date(0);
+
+        service.update("u1", beforeCutoff, "java", "go");
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(UpdateDefinition.class), eq(SkillCount.class));
+
+        ReflectionTestUtils.setField(service, "rebuiltUpTo", "u1");
+        service.update("u1", beforeCutoff, "java", "go");
+        service.update("u2", beforeCutoff, "java", "go");
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(UpdateDefinition.class), eq(SkillCount.class));
+    }
+
+    @Test
+    void entriesCreatedAfterTheCutoffAreAppliedLive() {
+        service.update("u1", new Date(System.currentTimeMillis() + 1000), null, "java");
+
+        verify(mongoTemplate).upsert(any(Query.class), any(UpdateDefinition.class), eq(SkillCount.class));
+    }
+}